@@ -17,6 +17,7 @@
 package com.atlassian.jira.rest.client.api;
 
 import com.atlassian.jira.rest.client.api.domain.Filter;
+import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.util.concurrent.Promise;
 
@@ -54,13 +55,85 @@ public interface SearchRestClient {
      * @param fields     set of fields which should be retrieved. You can specify *all for all fields
      *                   or *navigable (which is the default value, used when null is given) which will cause to include only
      *                   navigable fields in the result. To ignore the specific field you can use "-" before the field's name.
-     *                   Note that the following fields: summary, issuetype, created, updated, project and status are
-     *                   required. These fields are included in *all and *navigable.
+     *                   Only the listed fields are decoded. Getters of fields which were not requested return
+     *                   <code>null</code> (or an empty collection), including summary, issuetype, created, updated,
+     *                   project and status, which are always present when *all or *navigable is used.
      * @return issues matching given JQL query
      * @throws RestClientException in case of problems (connectivity, malformed messages, invalid JQL query, etc.)
      */
     Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults, @Nullable Integer startAt, @Nullable Set<String> fields);
 
+    /**
+     * Lazily iterates over all issues matching the query, transparently requesting subsequent pages.
+     * While the current page is being consumed up to <code>prefetchPages</code> following pages are already
+     * requested, so the caller does not wait for a full round-trip at each page boundary. Nothing is requested
+     * before the returned iterable is iterated and each new iterator performs a fresh search.
+     *
+     * @param jql           a valid JQL query (will be properly encoded by JIRA client). All issues matches to the null
+     *                      or empty JQL.
+     * @param pageSize      number of issues requested per page (maxResults of the underlying searches)
+     * @param prefetchPages number of pages kept in flight ahead of the consumer; 0 disables prefetching. At most
+     *                      prefetchPages + 1 pages are held in memory at any time.
+     * @param fields        set of fields which should be retrieved, see {@link #searchJql(String, Integer, Integer, Set)}
+     * @return all issues matching given JQL query, in the order returned by JIRA
+     * @throws RestClientException while iterating, in case of problems (connectivity, malformed messages, invalid JQL query, etc.)
+     * @throws UnsupportedOperationException by implementations written before this method was added, which do not
+     *                                       override it
+     * @since 5.1
+     */
+    default Iterable<Issue> searchAll(@Nullable String jql, int pageSize, int prefetchPages, @Nullable Set<String> fields) {
+        throw new UnsupportedOperationException("searchAll is not implemented by " + getClass().getName());
+    }
+
+    /**
+     * Iterates over all issues matching the query, fetching the remaining pages concurrently. The first page is
+     * requested on its own to learn the total number of matching issues, after which the remaining pages are
+     * requested with at most <code>maxConcurrentRequests</code> requests in flight. A new page is requested only
+     * when the consumer takes one of the fetched pages, so memory stays bounded by the concurrency limit.
+     * <p>
+     * The default implementation returns {@link #searchAll(String, int, int, Set)} with
+     * <code>maxConcurrentRequests - 1</code> pages prefetched, which keeps the order of JIRA.
+     *
+     * @param jql                   a valid JQL query (will be properly encoded by JIRA client). All issues matches to
+     *                              the null or empty JQL.
+     * @param pageSize              number of issues requested per page (maxResults of the underlying searches)
+     * @param maxConcurrentRequests maximum number of page requests in flight at the same time, must be positive
+     * @param preserveOrder         when true issues are returned in the order returned by JIRA, otherwise pages are
+     *                              handed back as soon as they arrive
+     * @param fields                set of fields which should be retrieved, see {@link #searchJql(String, Integer, Integer, Set)}
+     * @return all issues matching given JQL query
+     * @throws RestClientException while iterating, in case of problems (connectivity, malformed messages, invalid JQL query, etc.)
+     * @since 5.1
+     */
+    default Iterable<Issue> searchAllParallel(@Nullable String jql, int pageSize, int maxConcurrentRequests,
+                                              boolean preserveOrder, @Nullable Set<String> fields) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive: " + maxConcurrentRequests);
+        }
+        return searchAll(jql, pageSize, maxConcurrentRequests - 1, fields);
+    }
+
+    /**
+     * Iterates over all issues matching the query using keyset (seek) pagination. Instead of growing
+     * <code>startAt</code> offsets every page is requested as <code>(jql) AND id &gt; lastSeenId ORDER BY id ASC</code>,
+     * where lastSeenId is the id of the last issue of the previous page. Per-page cost on the server stays constant
+     * and the crawl is not disturbed by issues changing while it runs. Issues are returned ordered by id; any
+     * ORDER BY clause present in the query is ignored.
+     *
+     * @param jql      a valid JQL query (will be properly encoded by JIRA client). All issues matches to the null
+     *                 or empty JQL.
+     * @param pageSize number of issues requested per page (maxResults of the underlying searches)
+     * @param fields   set of fields which should be retrieved, see {@link #searchJql(String, Integer, Integer, Set)}
+     * @return all issues matching given JQL query, ordered by id
+     * @throws RestClientException while iterating, in case of problems (connectivity, malformed messages, invalid JQL query, etc.)
+     * @throws UnsupportedOperationException by implementations written before this method was added, which do not
+     *                                       override it
+     * @since 5.1
+     */
+    default Iterable<Issue> searchAllByKeyset(@Nullable String jql, int pageSize, @Nullable Set<String> fields) {
+        throw new UnsupportedOperationException("searchAllByKeyset is not implemented by " + getClass().getName());
+    }
+
     /**
      * Retrieves list of your favourite filters.
      *
@@ -181,7 +181,11 @@ public class Issue extends BasicIssue implements ExpandableResource {
      */
     @Nullable
     public IssueField getField(String id) {
-        for (IssueField issueField : issueFields) {
+        final Iterable<IssueField> fields = getFields();
+        if (fields instanceof IssueFieldIndex.IndexedFields) {
+            return ((IssueFieldIndex.IndexedFields) fields).getById(id);
+        }
+        for (IssueField issueField : fields) {
             if (issueField.getId().equals(id)) {
                 return issueField;
             }
@@ -199,7 +203,11 @@ public class Issue extends BasicIssue implements ExpandableResource {
      */
     @Nullable
     public IssueField getFieldByName(String name) {
-        for (IssueField issueField : issueFields) {
+        final Iterable<IssueField> fields = getFields();
+        if (fields instanceof IssueFieldIndex.IndexedFields) {
+            return ((IssueFieldIndex.IndexedFields) fields).getByName(name);
+        }
+        for (IssueField issueField : fields) {
             if (issueField.getName().equals(name)) {
                 return issueField;
             }
@@ -356,31 +364,31 @@ public class Issue extends BasicIssue implements ExpandableResource {
     @Override
     protected Objects.ToStringHelper getToStringHelper() {
         return super.getToStringHelper().
-                add("project", project).
-                add("status", status).
-                add("description", description).
-                add("expandos", expandos).
-                add("resolution", resolution).
-                add("reporter", reporter).
-                add("assignee", assignee).addValue("\n").
-                add("fields", issueFields).addValue("\n").
-                add("affectedVersions", affectedVersions).addValue("\n").
-                add("fixVersions", fixVersions).addValue("\n").
-                add("components", components).addValue("\n").
-                add("issueType", issueType).
-                add("creationDate", creationDate).
-                add("updateDate", updateDate).addValue("\n").
-                add("dueDate", dueDate).addValue("\n").
-                add("attachments", attachments).addValue("\n").
-                add("comments", comments).addValue("\n").
-                add("transitionsUri", transitionsUri).
-                add("issueLinks", issueLinks).addValue("\n").
-                add("votes", votes).addValue("\n").
-                add("worklogs", worklogs).addValue("\n").
-                add("watchers", watchers).
-                add("timeTracking", timeTracking).
-                add("changelog", changelog).
-                add("operations", operations).
-                add("labels", labels);
+                add("project", getProject()).
+                add("status", getStatus()).
+                add("description", getDescription()).
+                add("expandos", getExpandos()).
+                add("resolution", getResolution()).
+                add("reporter", getReporter()).
+                add("assignee", getAssignee()).addValue("\n").
+                add("fields", getFields()).addValue("\n").
+                add("affectedVersions", getAffectedVersions()).addValue("\n").
+                add("fixVersions", getFixVersions()).addValue("\n").
+                add("components", getComponents()).addValue("\n").
+                add("issueType", getIssueType()).
+                add("creationDate", getCreationDate()).
+                add("updateDate", getUpdateDate()).addValue("\n").
+                add("dueDate", getDueDate()).addValue("\n").
+                add("attachments", getAttachments()).addValue("\n").
+                add("comments", getComments()).addValue("\n").
+                add("transitionsUri", getTransitionsUri()).
+                add("issueLinks", getIssueLinks()).addValue("\n").
+                add("votes", getVotes()).addValue("\n").
+                add("worklogs", getWorklogs()).addValue("\n").
+                add("watchers", getWatchers()).
+                add("timeTracking", getTimeTracking()).
+                add("changelog", getChangelog()).
+                add("operations", getOperations()).
+                add("labels", getLabels());
     }
 }
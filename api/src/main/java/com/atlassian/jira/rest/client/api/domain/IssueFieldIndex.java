@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.api.domain;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Assigns a fixed position (slot) to every field id known for a response, together with a lookup of the
+ * slots by field name. One index is shared by all issues parsed from the same response, while every issue
+ * only keeps its own fields in a list and their slots in a sorted array, so that the memory taken by an issue
+ * depends on its own fields only. This makes {@link Issue#getField(String)} and
+ * {@link Issue#getFieldByName(String)} binary searches over the fields of the issue, without any per-issue
+ * hash tables.
+ * <p>
+ * The index is immutable and therefore safe to share between threads.
+ *
+ * @since v5.1
+ */
+public class IssueFieldIndex {
+
+    private static final int NO_SLOT = -1;
+
+    private final ImmutableMap<String, Integer> slotsById;
+    private final ImmutableListMultimap<String, Integer> slotsByName;
+
+    /**
+     * @param fieldNames field ids mapped to their names (names may be null)
+     */
+    public IssueFieldIndex(final Map<String, String> fieldNames) {
+        final ImmutableMap.Builder<String, Integer> byId = ImmutableMap.builder();
+        final ImmutableListMultimap.Builder<String, Integer> byName = ImmutableListMultimap.builder();
+        int slot = 0;
+        for (Map.Entry<String, String> entry : fieldNames.entrySet()) {
+            byId.put(entry.getKey(), slot);
+            if (entry.getValue() != null) {
+                byName.put(entry.getValue(), slot);
+            }
+            slot++;
+        }
+        this.slotsById = byId.build();
+        this.slotsByName = byName.build();
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    /**
+     * @return builder of the fields collection for a single issue, backed by this index
+     */
+    public FieldsBuilder newFieldsBuilder() {
+        return new FieldsBuilder();
+    }
+
+    /**
+     * Collects the fields of one issue. A builder is meant to build a single collection. A field added again
+     * under the same id replaces the first one, keeping its position.
+     */
+    public class FieldsBuilder {
+        private final List<IssueField> fields = new ArrayList<>();
+        // slot of the field at every position, NO_SLOT for fields not described by the index
+        private int[] slots = new int[16];
+
+        private FieldsBuilder() {
+        }
+
+        public FieldsBuilder add(final IssueField field) {
+            final Integer slot = slotsById.get(field.getId());
+            if (fields.size() == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slots[fields.size()] = slot != null ? slot : NO_SLOT;
+            fields.add(field);
+            return this;
+        }
+
+        public IndexedFields build() {
+            final long[] slotPositions = slotPositions(slots, fields.size());
+            if (!replaceDuplicates(slotPositions)) {
+                return new IndexedFields(IssueFieldIndex.this, ImmutableList.copyOf(fields), slotPositions,
+                        unindexedPositions(slots, fields.size()));
+            }
+            // rare: the same id was added more than once, keep the first position with the last field
+            final List<IssueField> kept = new ArrayList<>(fields.size());
+            final int[] keptSlots = new int[fields.size()];
+            for (int position = 0; position < fields.size(); position++) {
+                if (fields.get(position) != null) {
+                    keptSlots[kept.size()] = slots[position];
+                    kept.add(fields.get(position));
+                }
+            }
+            return new IndexedFields(IssueFieldIndex.this, ImmutableList.copyOf(kept),
+                    slotPositions(keptSlots, kept.size()), unindexedPositions(keptSlots, kept.size()));
+        }
+
+        private boolean replaceDuplicates(final long[] slotPositions) {
+            boolean replaced = false;
+            for (int i = 1; i < slotPositions.length; i++) {
+                if (slotOf(slotPositions[i]) == slotOf(slotPositions[i - 1])) {
+                    final int first = positionOf(slotPositions[i - 1]);
+                    final int again = positionOf(slotPositions[i]);
+                    fields.set(first, fields.get(again));
+                    fields.set(again, null);
+                    slotPositions[i] = slotPositions[i - 1];
+                    replaced = true;
+                }
+            }
+            return replaced;
+        }
+    }
+
+    // slot in the upper half and position in the lower half, so that sorting orders by slot, then position
+    private static long[] slotPositions(final int[] slots, final int count) {
+        int indexed = 0;
+        for (int position = 0; position < count; position++) {
+            if (slots[position] != NO_SLOT) {
+                indexed++;
+            }
+        }
+        final long[] slotPositions = new long[indexed];
+        int i = 0;
+        for (int position = 0; position < count; position++) {
+            if (slots[position] != NO_SLOT) {
+                slotPositions[i++] = ((long) slots[position] << 32) | position;
+            }
+        }
+        Arrays.sort(slotPositions);
+        return slotPositions;
+    }
+
+    private static int[] unindexedPositions(final int[] slots, final int count) {
+        int unindexed = 0;
+        for (int position = 0; position < count; position++) {
+            if (slots[position] == NO_SLOT) {
+                unindexed++;
+            }
+        }
+        final int[] positions = new int[unindexed];
+        int i = 0;
+        for (int position = 0; position < count; position++) {
+            if (slots[position] == NO_SLOT) {
+                positions[i++] = position;
+            }
+        }
+        return positions;
+    }
+
+    private static int slotOf(final long slotPosition) {
+        return (int) (slotPosition >>> 32);
+    }
+
+    private static int positionOf(final long slotPosition) {
+        return (int) slotPosition;
+    }
+
+    /**
+     * Fields of a single issue in the order they were added, i.e. the order of the response, with lookups by slot
+     * of the shared {@link IssueFieldIndex}. Like any list, it equals other lists of the same fields in the same
+     * order.
+     */
+    public static class IndexedFields extends AbstractList<IssueField> implements RandomAccess {
+        private final IssueFieldIndex index;
+        private final List<IssueField> fields;
+        // slots of the indexed fields with their positions, sorted by slot
+        private final long[] slotPositions;
+        // positions of the fields not described by the index, in order
+        private final int[] unindexed;
+
+        private IndexedFields(final IssueFieldIndex index, final List<IssueField> fields, final long[] slotPositions,
+                              final int[] unindexed) {
+            this.index = index;
+            this.fields = fields;
+            this.slotPositions = slotPositions;
+            this.unindexed = unindexed;
+        }
+
+        @Nullable
+        public IssueField getById(final String id) {
+            final Integer slot = index.slotsById.get(id);
+            if (slot != null) {
+                final int position = positionOfSlot(slot);
+                return position >= 0 ? fields.get(position) : null;
+            }
+            for (int position : unindexed) {
+                if (fields.get(position).getId().equals(id)) {
+                    return fields.get(position);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the first field of the response with the given name, as several fields may share one name
+         */
+        @Nullable
+        public IssueField getByName(final String name) {
+            int first = fields.size();
+            for (Integer slot : index.slotsByName.get(name)) {
+                final int position = positionOfSlot(slot);
+                if (position >= 0 && position < first) {
+                    first = position;
+                }
+            }
+            for (int position : unindexed) {
+                if (position >= first) {
+                    break;
+                }
+                if (Objects.equals(fields.get(position).getName(), name)) {
+                    return fields.get(position);
+                }
+            }
+            return first < fields.size() ? fields.get(first) : null;
+        }
+
+        @Override
+        public IssueField get(final int position) {
+            return fields.get(position);
+        }
+
+        @Override
+        public int size() {
+            return fields.size();
+        }
+
+        private int positionOfSlot(final int slot) {
+            int low = 0;
+            int high = slotPositions.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int middleSlot = slotOf(slotPositions[middle]);
+                if (middleSlot < slot) {
+                    low = middle + 1;
+                } else if (middleSlot > slot) {
+                    high = middle - 1;
+                } else {
+                    return positionOf(slotPositions[middle]);
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+
+/**
+ * Helpers for composing JQL queries on behalf of the caller.
+ *
+ * @since v5.1
+ */
+public class JqlUtil {
+
+    private JqlUtil() {
+    }
+
+    /**
+     * @return given query without its trailing ORDER BY clause; empty string for null query
+     */
+    public static String stripOrderBy(@Nullable final String jql) {
+        final String query = StringUtils.defaultString(jql);
+        final int orderBy = indexOfOrderBy(query);
+        return orderBy >= 0 ? StringUtils.stripEnd(query.substring(0, orderBy), null) : query;
+    }
+
+    /**
+     * Narrows down given query with an additional condition. Any ORDER BY clause of the query is dropped.
+     *
+     * @return <code>(jql) AND condition</code>, or just the condition for a blank query
+     */
+    public static String and(@Nullable final String jql, final String condition) {
+        final String where = stripOrderBy(jql);
+        return StringUtils.isBlank(where) ? condition : "(" + where + ") AND " + condition;
+    }
+
+    /**
+     * Finds the ORDER BY keywords of the query, skipping quoted strings and escaped characters, so that for
+     * example <code>summary ~ "order by date"</code> is left alone.
+     *
+     * @return index of the ORDER keyword, or -1 when the query has no ORDER BY clause
+     */
+    private static int indexOfOrderBy(final String jql) {
+        char quote = 0;
+        for (int i = 0; i < jql.length(); i++) {
+            final char c = jql.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (isKeyword(jql, i, "order")) {
+                int by = i + "order".length();
+                if (by < jql.length() && Character.isWhitespace(jql.charAt(by))) {
+                    while (by < jql.length() && Character.isWhitespace(jql.charAt(by))) {
+                        by++;
+                    }
+                    if (isKeyword(jql, by, "by")) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isKeyword(final String jql, final int index, final String keyword) {
+        final int end = index + keyword.length();
+        return jql.regionMatches(true, index, keyword, 0, keyword.length())
+                && (index == 0 || !isWordChar(jql.charAt(index - 1)))
+                && (end == jql.length() || !isWordChar(jql.charAt(end)));
+    }
+
+    private static boolean isWordChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
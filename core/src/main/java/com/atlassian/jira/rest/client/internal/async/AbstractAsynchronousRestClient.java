@@ -18,6 +18,7 @@ package com.atlassian.jira.rest.client.internal.async;
 import com.atlassian.httpclient.api.DefaultResponseTransformation;
 import com.atlassian.httpclient.api.EntityBuilder;
 import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Request;
 import com.atlassian.httpclient.api.Response;
 import com.atlassian.httpclient.api.ResponsePromise;
 import com.atlassian.httpclient.api.ResponseTransformation;
@@ -27,6 +28,7 @@ import com.atlassian.jira.rest.client.internal.json.JsonArrayParser;
 import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
 import com.atlassian.jira.rest.client.internal.json.JsonParseUtil;
 import com.atlassian.jira.rest.client.internal.json.JsonParser;
+import com.atlassian.jira.rest.client.internal.json.JsonStreamReader;
 import com.atlassian.jira.rest.client.internal.json.gen.JsonGenerator;
 import com.atlassian.util.concurrent.Promise;
 import com.google.common.base.Function;
@@ -56,9 +58,24 @@ public abstract class AbstractAsynchronousRestClient {
     private static final String JSON_CONTENT_TYPE = "application/json";
 
     private final HttpClient client;
+    // concurrent identical GETs of this client share a round-trip; all of them are sent with the credentials of
+    // the client, so its requests need no other key than the URI
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+    @Nullable
+    private final ResponseCache responseCache;
 
     protected AbstractAsynchronousRestClient(HttpClient client) {
+        this(client, null);
+    }
+
+    /**
+     * @param responseCache cache to revalidate the responses of {@link #getAndParse(URI, JsonParser)} against,
+     *                      <code>null</code> to always fetch them in full
+     * @since v5.1
+     */
+    protected AbstractAsynchronousRestClient(HttpClient client, @Nullable ResponseCache responseCache) {
         this.client = client;
+        this.responseCache = responseCache;
     }
 
     protected interface ResponseHandler<T> {
@@ -66,7 +83,39 @@ public abstract class AbstractAsynchronousRestClient {
     }
 
     protected final <T> Promise<T> getAndParse(final URI uri, final JsonParser<?, T> parser) {
-        return callAndParse(client.newRequest(uri).setAccept("application/json").get(), parser);
+        return inFlightRequests.join(uri, parser, () -> responseCache != null
+                ? getAndParseCached(uri, parser, responseCache)
+                : callAndParse(client.newRequest(uri).setAccept("application/json").get(), parser));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Promise<T> getAndParseCached(final URI uri, final JsonParser<?, T> parser, final ResponseCache responseCache) {
+        final ResponseCache.Entry cached = responseCache.get(uri, parser);
+        final Request.Builder request = client.newRequest(uri).setAccept("application/json");
+        if (cached != null) {
+            cached.addValidators(request);
+        }
+        final ResponseHandler<T> responseHandler = toResponseHandler(parser);
+        final Function<Response, T> transformFunction = toFunction(new ResponseHandler<T>() {
+            @Override
+            public T handle(Response response) throws JSONException, IOException {
+                final T value = responseHandler.handle(response);
+                responseCache.put(uri, parser, response, value);
+                return value;
+            }
+        });
+        final Function<Response, T> notModifiedFunction = cached != null ? new Function<Response, T>() {
+            @Override
+            public T apply(Response response) {
+                return (T) responseCache.notModified(cached);
+            }
+        } : AbstractAsynchronousRestClient.<T>errorFunction();
+        final ResponseTransformation<Object> responseTransformation = DefaultResponseTransformation.builder()
+                .ok(transformFunction)
+                .notModified(notModifiedFunction)
+                .others(AbstractAsynchronousRestClient.errorFunction())
+                .build();
+        return new DelegatingPromise(request.get().transform(responseTransformation));
     }
 
     protected final <I, T> Promise<T> postAndParse(final URI uri, I entity, final JsonGenerator<I> jsonGenerator,
@@ -138,18 +187,21 @@ public abstract class AbstractAsynchronousRestClient {
         return new DelegatingPromise(responsePromise.transform(responseTransformation));
     }
 
-    @SuppressWarnings("unchecked")
     protected final <T> Promise<T> callAndParse(final ResponsePromise responsePromise, final JsonParser<?, T> parser) {
-        final ResponseHandler<T> responseHandler = new ResponseHandler<T>() {
+        return callAndParse(responsePromise, toResponseHandler(parser));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseHandler<T> toResponseHandler(final JsonParser<?, T> parser) {
+        return new ResponseHandler<T>() {
             @Override
             public T handle(Response response) throws JSONException, IOException {
-                final String body = response.getEntity();
+                final InputStream entityStream = response.getEntityStream();
                 return (T) (parser instanceof JsonObjectParser ?
-                        ((JsonObjectParser) parser).parse(new JSONObject(body)) :
-                        ((JsonArrayParser) parser).parse(new JSONArray(body)));
+                        ((JsonObjectParser) parser).parse(JsonStreamReader.readObject(entityStream)) :
+                        ((JsonArrayParser) parser).parse(JsonStreamReader.readArray(entityStream)));
             }
         };
-        return callAndParse(responsePromise, responseHandler);
     }
 
     protected final Promise<Void> call(final ResponsePromise responsePromise) {
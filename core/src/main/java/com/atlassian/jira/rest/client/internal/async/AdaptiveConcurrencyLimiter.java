@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of requests in flight with an AIMD (additive increase, multiplicative decrease) algorithm.
+ * Every request answered in time without an overload status raises the limit by roughly one per limit's worth of
+ * requests; every request which fails, times out, takes longer than the latency threshold or is answered with
+ * 429 or 5xx cuts it by the backoff ratio. The limit thus settles at the concurrency JIRA can serve quickly.
+ * <p>
+ * Requests over the limit wait in a bounded queue and are sent, in order, as the requests in flight complete.
+ * When the queue is full, requests fail at once with a {@link RejectedExecutionException} rather than piling up.
+ *
+ * @since v5.1
+ */
+public class AdaptiveConcurrencyLimiter implements RequestStage {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final int DEFAULT_MAX_QUEUE_LENGTH = 1000;
+    public static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 5000;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueLength;
+    private final long latencyThresholdNanos;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private long rejectedRequests;
+    private final Deque<QueuedRequest> queue = new ArrayDeque<>();
+
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_MAX_QUEUE_LENGTH,
+                DEFAULT_LATENCY_THRESHOLD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param initialLimit     number of requests allowed in flight before any of them completes
+     * @param minLimit         the limit never drops below this number
+     * @param maxLimit         the limit never grows above this number, there is no point in raising it over the
+     *                         number of pooled connections
+     * @param maxQueueLength   number of requests waiting for the limit before new ones are rejected, 0 to reject
+     *                         all requests over the limit
+     * @param latencyThreshold requests taking longer are treated as a sign of overload
+     * @param unit             time unit of the latency threshold
+     */
+    public AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+                                      final int maxQueueLength, final long latencyThreshold, final TimeUnit unit) {
+        Preconditions.checkArgument(minLimit > 0, "minLimit must be positive");
+        Preconditions.checkArgument(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "initialLimit must be between minLimit and maxLimit");
+        Preconditions.checkArgument(maxQueueLength >= 0, "maxQueueLength cannot be negative");
+        Preconditions.checkArgument(latencyThreshold > 0, "latencyThreshold must be positive");
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueLength = maxQueueLength;
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request, final Next next,
+                                   final ScheduledExecutorService scheduler) {
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                if (queue.size() >= maxQueueLength) {
+                    rejectedRequests++;
+                    return ResponsePromiseSupport.failed(new RejectedExecutionException("Too many requests to JIRA, "
+                            + inFlight + " in flight and " + queue.size() + " queued"));
+                }
+                final QueuedRequest queued = new QueuedRequest(next);
+                queue.addLast(queued);
+                return ResponsePromises.toResponsePromise(queued.response);
+            }
+            inFlight++;
+        }
+        return send(next);
+    }
+
+    /**
+     * @return number of requests currently allowed in flight
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return number of requests waiting for the limit
+     */
+    public synchronized int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of requests rejected because the queue was full
+     */
+    public synchronized long getRejectedRequests() {
+        return rejectedRequests;
+    }
+
+    private ResponsePromise send(final Supplier<ResponsePromise> next) {
+        final long start = System.nanoTime();
+        final ResponsePromise responsePromise;
+        try {
+            responsePromise = next.get();
+        } catch (RuntimeException e) {
+            release(false, false);
+            throw e;
+        }
+        responsePromise.addListener(() -> onComplete(responsePromise, System.nanoTime() - start), Runnable::run);
+        return responsePromise;
+    }
+
+    private void onComplete(final ResponsePromise responsePromise, final long latencyNanos) {
+        boolean overloaded = latencyNanos > latencyThresholdNanos;
+        boolean measured = true;
+        try {
+            final Response response = responsePromise.get();
+            overloaded |= response != null && isOverloadStatus(response.getStatusCode());
+        } catch (ExecutionException e) {
+            overloaded = true;
+        } catch (CancellationException e) {
+            // says nothing about the server
+            measured = false;
+        } catch (InterruptedException e) {
+            // cannot happen, the promise is already done
+            Thread.currentThread().interrupt();
+            measured = false;
+        }
+        release(measured, overloaded);
+    }
+
+    private static boolean isOverloadStatus(final int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private void release(final boolean measured, final boolean overloaded) {
+        final List<QueuedRequest> toSend = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            if (measured) {
+                limit = overloaded ? Math.max(minLimit, limit * BACKOFF_RATIO) : Math.min(maxLimit, limit + 1 / limit);
+            }
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                final QueuedRequest queued = queue.pollFirst();
+                if (!queued.response.isCancelled()) {
+                    inFlight++;
+                    toSend.add(queued);
+                }
+            }
+        }
+        for (QueuedRequest queued : toSend) {
+            queued.send();
+        }
+    }
+
+    private synchronized void dequeue(final QueuedRequest queued) {
+        queue.remove(queued);
+    }
+
+    private class QueuedRequest {
+        private final Supplier<ResponsePromise> next;
+        private final SettableFuture<Response> response = SettableFuture.create();
+
+        QueuedRequest(final Supplier<ResponsePromise> next) {
+            this.next = next;
+            response.addListener(() -> {
+                if (response.isCancelled()) {
+                    dequeue(this);
+                }
+            }, Runnable::run);
+        }
+
+        void send() {
+            final ResponsePromise responsePromise;
+            try {
+                responsePromise = AdaptiveConcurrencyLimiter.this.send(next);
+            } catch (RuntimeException e) {
+                response.setException(e);
+                return;
+            }
+            ResponsePromiseSupport.propagate(responsePromise, response);
+        }
+    }
+}
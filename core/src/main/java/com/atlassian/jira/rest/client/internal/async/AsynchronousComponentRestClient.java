@@ -39,6 +39,12 @@ import java.net.URI;
 public class AsynchronousComponentRestClient extends AbstractAsynchronousRestClient implements ComponentRestClient {
 
     private final ComponentJsonParser componentJsonParser = new ComponentJsonParser();
+    private final JsonObjectParser<Integer> relatedIssuesCountParser = new JsonObjectParser<Integer>() {
+        @Override
+        public Integer parse(JSONObject json) throws JSONException {
+            return json.getInt("issueCount");
+        }
+    };
     private final URI componentUri;
 
     public AsynchronousComponentRestClient(final URI baseUri, final HttpClient client) {
@@ -75,11 +81,6 @@ public class AsynchronousComponentRestClient extends AbstractAsynchronousRestCli
     @Override
     public Promise<Integer> getComponentRelatedIssuesCount(URI componentUri) {
         final URI relatedIssueCountsUri = UriBuilder.fromUri(componentUri).path("relatedIssueCounts").build();
-        return getAndParse(relatedIssueCountsUri, new JsonObjectParser<Integer>() {
-            @Override
-            public Integer parse(JSONObject json) throws JSONException {
-                return json.getInt("issueCount");
-            }
-        });
+        return getAndParse(relatedIssueCountsUri, relatedIssuesCountParser);
     }
 }
@@ -27,24 +27,64 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Factory for asynchronous http clients.
+ * <p>
+ * A client created with request stages owns a scheduler the stages delay requests on, which is shut down when the
+ * client is destroyed. Requests already delayed are still sent (or failed, when the transport was disposed), so no
+ * response promise is left pending; stages cannot delay further requests of a destroyed client.
  *
  * @since v2.0
  */
 public class AsynchronousHttpClientFactory {
 
-    @SuppressWarnings("unchecked")
     public DisposableHttpClient createClient(final URI serverUri, final AuthenticationHandler authenticationHandler) {
-        final HttpClientOptions options = new HttpClientOptions();
+        return createClient(serverUri, authenticationHandler, null);
+    }
 
+    /**
+     * @param parsingExecutor executor to process responses on, <code>null</code> to process them on the I/O threads
+     * @since v5.1
+     */
+    public DisposableHttpClient createClient(final URI serverUri, final AuthenticationHandler authenticationHandler,
+                                             @Nullable final ResponseParsingExecutor parsingExecutor) {
+        return createClient(serverUri, authenticationHandler, new HttpClientOptions(), parsingExecutor);
+    }
+
+    /**
+     * @param options         connection pool, I/O thread and timeout settings of the created client
+     * @param parsingExecutor executor to process responses on, <code>null</code> to process them on the I/O threads
+     * @since v5.1
+     */
+    public DisposableHttpClient createClient(final URI serverUri, final AuthenticationHandler authenticationHandler,
+                                             final HttpClientOptions options,
+                                             @Nullable final ResponseParsingExecutor parsingExecutor) {
+        return createClient(serverUri, authenticationHandler, options, parsingExecutor, Collections.<RequestStage>emptyList());
+    }
+
+    /**
+     * @param options         connection pool, I/O thread and timeout settings of the created client
+     * @param parsingExecutor executor to process responses on, <code>null</code> to process them on the I/O threads
+     * @param stages          stages every request passes through, in order, before it is sent
+     * @since v5.1
+     */
+    @SuppressWarnings("unchecked")
+    public DisposableHttpClient createClient(final URI serverUri, final AuthenticationHandler authenticationHandler,
+                                             final HttpClientOptions options,
+                                             @Nullable final ResponseParsingExecutor parsingExecutor,
+                                             final List<? extends RequestStage> stages) {
         final DefaultHttpClientFactory defaultHttpClientFactory = new DefaultHttpClientFactory(new NoOpEventPublisher(),
                 new RestClientApplicationProperties(serverUri),
                 new ThreadLocalContextManager() {
@@ -63,29 +103,95 @@ public class AsynchronousHttpClientFactory {
                 });
 
         final HttpClient httpClient = defaultHttpClientFactory.create(options);
+        final ScheduledExecutorService scheduler = createScheduler(stages);
 
-        return new AtlassianHttpClientDecorator(httpClient, authenticationHandler) {
+        return new AtlassianHttpClientDecorator(httpClient, authenticationHandler, parsingExecutor, stages, scheduler) {
             @Override
             public void destroy() throws Exception {
-                defaultHttpClientFactory.dispose(httpClient);
+                try {
+                    defaultHttpClientFactory.dispose(httpClient);
+                } finally {
+                    shutdown(scheduler);
+                }
             }
         };
     }
 
     public DisposableHttpClient createClient(final HttpClient client) {
-        return new AtlassianHttpClientDecorator(client, null) {
+        return createClient(client, null);
+    }
+
+    /**
+     * @param parsingExecutor executor to process responses on, <code>null</code> to process them on the I/O threads
+     * @since v5.1
+     */
+    public DisposableHttpClient createClient(final HttpClient client, @Nullable final ResponseParsingExecutor parsingExecutor) {
+        return createClient(client, null, parsingExecutor);
+    }
+
+    /**
+     * Wraps given transport, e.g. one multiplexing requests over HTTP/2 connections, so that requests of all
+     * sub-clients are authenticated by given handler. The transport is owned by the caller and is not disposed
+     * together with the returned client.
+     *
+     * @param authenticationHandler handler configuring every request, <code>null</code> for none
+     * @param parsingExecutor       executor to process responses on, <code>null</code> to process them on the
+     *                              threads of the transport
+     * @since v5.1
+     */
+    public DisposableHttpClient createClient(final HttpClient client, @Nullable final AuthenticationHandler authenticationHandler,
+                                             @Nullable final ResponseParsingExecutor parsingExecutor) {
+        return createClient(client, authenticationHandler, parsingExecutor, Collections.<RequestStage>emptyList());
+    }
+
+    /**
+     * @param authenticationHandler handler configuring every request, <code>null</code> for none
+     * @param parsingExecutor       executor to process responses on, <code>null</code> to process them on the
+     *                              threads of the transport
+     * @param stages                stages every request passes through, in order, before it is sent
+     * @since v5.1
+     */
+    public DisposableHttpClient createClient(final HttpClient client, @Nullable final AuthenticationHandler authenticationHandler,
+                                             @Nullable final ResponseParsingExecutor parsingExecutor,
+                                             final List<? extends RequestStage> stages) {
+        final ScheduledExecutorService scheduler = createScheduler(stages);
+        return new AtlassianHttpClientDecorator(client, authenticationHandler, parsingExecutor, stages, scheduler) {
 
             @Override
             public void destroy() throws Exception {
-                // This should never be implemented. This is simply creation of a wrapper
+                // The wrapped client should never be disposed here. This is simply creation of a wrapper
                 // for AtlassianHttpClient which is extended by a destroy method.
                 // Destroy method should never be called for AtlassianHttpClient coming from
                 // a client! Imagine you create a RestClient, pass your own HttpClient there
                 // and it gets destroy.
+                // Only the scheduler of the stages belongs to the wrapper and is shut down.
+                shutdown(scheduler);
             }
         };
     }
 
+    /**
+     * @return scheduler of a client with given stages, <code>null</code> when there are none; its thread is started
+     * by the first delayed request
+     */
+    @Nullable
+    private static ScheduledExecutorService createScheduler(final List<? extends RequestStage> stages) {
+        if (stages.isEmpty()) {
+            return null;
+        }
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "jira-rest-client-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void shutdown(@Nullable final ScheduledExecutorService scheduler) {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
     private static class NoOpEventPublisher implements EventPublisher {
         @Override
         public void publish(Object o) {
@@ -30,6 +30,7 @@ import com.atlassian.jira.rest.client.api.domain.CimProject;
 import com.atlassian.jira.rest.client.api.domain.Comment;
 import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.api.domain.Session;
 import com.atlassian.jira.rest.client.api.domain.Transition;
 import com.atlassian.jira.rest.client.api.domain.Votes;
 import com.atlassian.jira.rest.client.api.domain.Watchers;
@@ -44,8 +45,10 @@ import com.atlassian.jira.rest.client.internal.json.BasicIssueJsonParser;
 import com.atlassian.jira.rest.client.internal.json.BasicIssuesJsonParser;
 import com.atlassian.jira.rest.client.internal.json.CreateIssueMetadataJsonParser;
 import com.atlassian.jira.rest.client.internal.json.IssueJsonParser;
+import com.atlassian.jira.rest.client.internal.json.IssueParsingOptions;
 import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
 import com.atlassian.jira.rest.client.internal.json.JsonParseUtil;
+import com.atlassian.jira.rest.client.internal.json.JsonStreamReader;
 import com.atlassian.jira.rest.client.internal.json.TransitionJsonParser;
 import com.atlassian.jira.rest.client.internal.json.TransitionJsonParserV5;
 import com.atlassian.jira.rest.client.internal.json.VotesJsonParser;
@@ -60,6 +63,7 @@ import com.atlassian.util.concurrent.Promise;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
+import org.apache.http.HttpStatus;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
@@ -94,7 +98,7 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
     private final SessionRestClient sessionRestClient;
     private final MetadataRestClient metadataRestClient;
 
-    private final IssueJsonParser issueParser = new IssueJsonParser();
+    private final IssueJsonParser issueParser;
     private final BasicIssueJsonParser basicIssueParser = new BasicIssueJsonParser();
     private final JsonObjectParser<Watchers> watchersParser = WatchersJsonParserBuilder.createWatchersParser();
     private final TransitionJsonParser transitionJsonParser = new TransitionJsonParser();
@@ -103,21 +107,33 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
     private final CreateIssueMetadataJsonParser createIssueMetadataJsonParser = new CreateIssueMetadataJsonParser();
     private static final String FILE_BODY_TYPE = "file";
     private final URI baseUri;
-    private ServerInfo serverInfo;
+    private final MemoizedPromise<ServerInfo> versionInfo;
+    private final MemoizedPromise<String> loggedUsername;
 
     public AsynchronousIssueRestClient(final URI baseUri, final HttpClient client, final SessionRestClient sessionRestClient,
                                        final MetadataRestClient metadataRestClient) {
-        super(client);
+        this(baseUri, client, sessionRestClient, metadataRestClient, IssueParsingOptions.DEFAULT, null);
+    }
+
+    /**
+     * @param parsingOptions how fetched issues are decoded
+     * @param responseCache  cache of fetched issues, watchers, votes and create metadata revalidated with every read,
+     *                       <code>null</code> to always fetch them in full
+     */
+    AsynchronousIssueRestClient(final URI baseUri, final HttpClient client, final SessionRestClient sessionRestClient,
+                                final MetadataRestClient metadataRestClient, final IssueParsingOptions parsingOptions,
+                                @Nullable final ResponseCache responseCache) {
+        super(client, responseCache);
+        this.issueParser = new IssueJsonParser(null, parsingOptions);
         this.baseUri = baseUri;
         this.sessionRestClient = sessionRestClient;
         this.metadataRestClient = metadataRestClient;
+        this.versionInfo = new MemoizedPromise<>(metadataRestClient::getServerInfo);
+        this.loggedUsername = new MemoizedPromise<>(() -> sessionRestClient.getCurrentSession().map(Session::getUsername));
     }
 
-    private synchronized ServerInfo getVersionInfo() {
-        if (serverInfo == null) {
-            serverInfo = metadataRestClient.getServerInfo().claim();
-        }
-        return serverInfo;
+    private Promise<ServerInfo> getVersionInfo() {
+        return versionInfo.get();
     }
 
     @Override
@@ -206,7 +222,7 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
     public Promise<Iterable<Transition>> getTransitions(final URI transitionsUri) {
         return callAndParse(client().newRequest(transitionsUri).get(),
                 (ResponseHandler<Iterable<Transition>>) response -> {
-                    final JSONObject jsonObject = new JSONObject(response.getEntity());
+                    final JSONObject jsonObject = JsonStreamReader.readObject(response.getEntityStream());
                     if (jsonObject.has("transitions")) {
                         return JsonParseUtil.parseJsonArray(jsonObject.getJSONArray("transitions"), transitionJsonParserV5);
                     } else {
@@ -243,37 +259,39 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
 
     @Override
     public Promise<Void> transition(final URI transitionsUri, final TransitionInput transitionInput) {
-        final int buildNumber = getVersionInfo().getBuildNumber();
-        try {
-            JSONObject jsonObject = new JSONObject();
-            if (buildNumber >= ServerVersionConstants.BN_JIRA_5) {
-                jsonObject.put("transition", new JSONObject().put("id", transitionInput.getId()));
-            } else {
-                jsonObject.put("transition", transitionInput.getId());
-            }
-            if (transitionInput.getComment() != null) {
+        return getVersionInfo().<Void>flatMap(serverInfo -> {
+            final int buildNumber = serverInfo.getBuildNumber();
+            try {
+                JSONObject jsonObject = new JSONObject();
                 if (buildNumber >= ServerVersionConstants.BN_JIRA_5) {
-                    jsonObject.put("update", new JSONObject().put("comment",
-                            new JSONArray().put(new JSONObject().put("add",
-                                    new CommentJsonGenerator(getVersionInfo())
-                                            .generate(transitionInput.getComment())))));
+                    jsonObject.put("transition", new JSONObject().put("id", transitionInput.getId()));
                 } else {
-                    jsonObject.put("comment", new CommentJsonGenerator(getVersionInfo())
-                            .generate(transitionInput.getComment()));
+                    jsonObject.put("transition", transitionInput.getId());
                 }
+                if (transitionInput.getComment() != null) {
+                    if (buildNumber >= ServerVersionConstants.BN_JIRA_5) {
+                        jsonObject.put("update", new JSONObject().put("comment",
+                                new JSONArray().put(new JSONObject().put("add",
+                                        new CommentJsonGenerator(serverInfo)
+                                                .generate(transitionInput.getComment())))));
+                    } else {
+                        jsonObject.put("comment", new CommentJsonGenerator(serverInfo)
+                                .generate(transitionInput.getComment()));
+                    }
+                }
+                final Iterable<FieldInput> fields = transitionInput.getFields();
+                final JSONObject fieldsJs = new IssueUpdateJsonGenerator().generate(fields);
+                if (fieldsJs.keys().hasNext()) {
+                    jsonObject.put("fields", fieldsJs);
+                }
+                if (fieldsJs.keys().hasNext()) {
+                    jsonObject.put("fields", fieldsJs);
+                }
+                return post(transitionsUri, jsonObject);
+            } catch (JSONException ex) {
+                throw new RestClientException(ex);
             }
-            final Iterable<FieldInput> fields = transitionInput.getFields();
-            final JSONObject fieldsJs = new IssueUpdateJsonGenerator().generate(fields);
-            if (fieldsJs.keys().hasNext()) {
-                jsonObject.put("fields", fieldsJs);
-            }
-            if (fieldsJs.keys().hasNext()) {
-                jsonObject.put("fields", fieldsJs);
-            }
-            return post(transitionsUri, jsonObject);
-        } catch (JSONException ex) {
-            throw new RestClientException(ex);
-        }
+        });
     }
 
     @Override
@@ -302,9 +320,22 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
         return post(watchersUri);
     }
 
+    /**
+     * The username of the current session is fetched on the first call and reused by later ones. It is fetched
+     * again only after JIRA answers an unwatch with 401 (Unauthorized), e.g. when the session of the client expired.
+     * The credentials of a client are fixed when it is created, so any other change of the user behind them, such as
+     * an authentication handler switching users between requests, is not noticed; use a new client per user instead.
+     */
     @Override
     public Promise<Void> unwatch(final URI watchersUri) {
-        return removeWatcher(watchersUri, getLoggedUsername());
+        final Promise<String> username = loggedUsername.get();
+        return username.<Void>flatMap(name -> removeWatcher(watchersUri, name)).fail(failure -> {
+            // the credentials of the client changed, e.g. its session expired, and may belong to another user now
+            if (failure instanceof RestClientException
+                    && ((RestClientException) failure).getStatusCode().or(0) == HttpStatus.SC_UNAUTHORIZED) {
+                loggedUsername.invalidate(username);
+            }
+        });
     }
 
     @Override
@@ -314,19 +345,22 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
 
     @Override
     public Promise<Void> removeWatcher(final URI watchersUri, final String username) {
-        final UriBuilder uriBuilder = UriBuilder.fromUri(watchersUri);
-        if (getVersionInfo().getBuildNumber() >= ServerVersionConstants.BN_JIRA_4_4) {
-            uriBuilder.queryParam("username", username);
-        } else {
-            uriBuilder.path(username).build();
-        }
-        return delete(uriBuilder.build());
+        return getVersionInfo().<Void>flatMap(serverInfo -> {
+            final UriBuilder uriBuilder = UriBuilder.fromUri(watchersUri);
+            if (serverInfo.getBuildNumber() >= ServerVersionConstants.BN_JIRA_4_4) {
+                uriBuilder.queryParam("username", username);
+            } else {
+                uriBuilder.path(username).build();
+            }
+            return delete(uriBuilder.build());
+        });
     }
 
     @Override
     public Promise<Void> linkIssue(final LinkIssuesInput linkIssuesInput) {
         final URI uri = UriBuilder.fromUri(baseUri).path("issueLink").build();
-        return post(uri, linkIssuesInput, new LinkIssuesInputGenerator(getVersionInfo()));
+        return getVersionInfo().<Void>flatMap(serverInfo ->
+                post(uri, linkIssuesInput, new LinkIssuesInputGenerator(serverInfo)));
     }
 
     @Override
@@ -370,7 +404,8 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
 
     @Override
     public Promise<Void> addComment(final URI commentsUri, final Comment comment) {
-        return post(commentsUri, comment, new CommentJsonGenerator(getVersionInfo()));
+        return getVersionInfo().<Void>flatMap(serverInfo ->
+                post(commentsUri, comment, new CommentJsonGenerator(serverInfo)));
     }
 
     @Override
@@ -403,8 +438,4 @@ public class AsynchronousIssueRestClient extends AbstractAsynchronousRestClient
                 .post();
         return call(responsePromise);
     }
-
-    private String getLoggedUsername() {
-        return sessionRestClient.getCurrentSession().claim().getUsername();
-    }
 }
@@ -27,10 +27,13 @@ import com.atlassian.jira.rest.client.api.SearchRestClient;
 import com.atlassian.jira.rest.client.api.SessionRestClient;
 import com.atlassian.jira.rest.client.api.UserRestClient;
 import com.atlassian.jira.rest.client.api.VersionRestClient;
+import com.atlassian.jira.rest.client.internal.json.IssueParsingOptions;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Asynchronous implementation of JIRA REST com.atlassian.jira.rest.client.
@@ -51,18 +54,39 @@ public class AsynchronousJiraRestClient implements JiraRestClient {
     private final MyPermissionsRestClient myPermissionsRestClient;
     private final DisposableHttpClient httpClient;
     private final AuditRestClient auditRestClient;
+    @Nullable
+    private final ResponseCache responseCache;
 
     public AsynchronousJiraRestClient(final URI serverUri, final DisposableHttpClient httpClient) {
+        this(serverUri, httpClient, IssueParsingOptions.DEFAULT, null, 0);
+    }
+
+    /**
+     * @param parsingOptions          how issues returned by the issue and search clients are decoded
+     * @param responseCache           cache of issues and projects revalidated with every read, <code>null</code> to
+     *                                always fetch them in full; must not be shared with clients authenticated as
+     *                                other users
+     * @param metadataTimeToLiveNanos how long the metadata client serves metadata from memory, see
+     *                                {@link CachingMetadataRestClient}; 0 to always fetch it
+     */
+    AsynchronousJiraRestClient(final URI serverUri, final DisposableHttpClient httpClient,
+                               final IssueParsingOptions parsingOptions, @Nullable final ResponseCache responseCache,
+                               final long metadataTimeToLiveNanos) {
         final URI baseUri = UriBuilder.fromUri(serverUri).path("/rest/api/latest").build();
 
         this.httpClient = httpClient;
-        metadataRestClient = new AsynchronousMetadataRestClient(baseUri, httpClient);
+        this.responseCache = responseCache;
+        final MetadataRestClient metadata = new AsynchronousMetadataRestClient(baseUri, httpClient);
+        metadataRestClient = metadataTimeToLiveNanos > 0 ? CachingMetadataRestClient.builder(metadata)
+                .timeToLive(metadataTimeToLiveNanos, TimeUnit.NANOSECONDS)
+                .build() : metadata;
         sessionRestClient = new AsynchronousSessionRestClient(serverUri, httpClient);
-        issueRestClient = new AsynchronousIssueRestClient(baseUri, httpClient, sessionRestClient, metadataRestClient);
+        issueRestClient = new AsynchronousIssueRestClient(baseUri, httpClient, sessionRestClient, metadataRestClient,
+                parsingOptions, responseCache);
         userRestClient = new AsynchronousUserRestClient(baseUri, httpClient);
-        projectRestClient = new AsynchronousProjectRestClient(baseUri, httpClient);
+        projectRestClient = new AsynchronousProjectRestClient(baseUri, httpClient, responseCache);
         componentRestClient = new AsynchronousComponentRestClient(baseUri, httpClient);
-        searchRestClient = new AsynchronousSearchRestClient(baseUri, httpClient);
+        searchRestClient = new AsynchronousSearchRestClient(baseUri, httpClient, parsingOptions);
         versionRestClient = new AsynchronousVersionRestClient(baseUri, httpClient);
         projectRolesRestClient = new AsynchronousProjectRolesRestClient(serverUri, httpClient);
         myPermissionsRestClient = new AsynchronousMyPermissionsRestClient(baseUri, httpClient);
@@ -124,6 +148,15 @@ public class AsynchronousJiraRestClient implements JiraRestClient {
         return auditRestClient;
     }
 
+    /**
+     * @return cache of issues and projects with its hit, miss and revalidation counts, <code>null</code> if none
+     * @since v5.1
+     */
+    @Nullable
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
     @Override
     public void close() throws IOException {
         try {
@@ -16,25 +16,77 @@
 package com.atlassian.jira.rest.client.internal.async;
 
 import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.factory.HttpClientOptions;
 import com.atlassian.jira.rest.client.api.AuthenticationHandler;
 import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.JiraRestClientFactory;
 import com.atlassian.jira.rest.client.auth.BasicHttpAuthenticationHandler;
+import com.atlassian.jira.rest.client.internal.json.EntityInterner;
+import com.atlassian.jira.rest.client.internal.json.IssueParsingOptions;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
+import javax.annotation.Nullable;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Serves asynchronous implementations of the JiraRestClient.
+ * <p>
+ * The default constructor serves clients with the defaults of the underlying HTTP client. Use {@link #builder()}
+ * to decode issues lazily, tune the connection pool, I/O threads and timeouts, add retries and limits, cache
+ * responses and metadata, or replace the HTTP client with another transport.
  *
  * @since v2.0
  */
 public class AsynchronousJiraRestClientFactory implements JiraRestClientFactory {
 
+    private static final long SHARED_INTERNER_MAXIMUM_SIZE = 10000;
+    private static final long SHARED_INTERNER_EXPIRY_MINUTES = 10;
+
+    private final boolean lazyIssues;
+    private final boolean internAcrossResponses;
+    @Nullable
+    private final ResponseParsingExecutor parsingExecutor;
+    private final HttpClientOptions httpClientOptions;
+    @Nullable
+    private final HttpClient transport;
+    private final List<RequestStage> requestStages;
+    private final long responseCacheSize;
+    private final long metadataTimeToLiveNanos;
+
+    public AsynchronousJiraRestClientFactory() {
+        this(new Builder());
+    }
+
+    private AsynchronousJiraRestClientFactory(final Builder builder) {
+        this.lazyIssues = builder.lazyIssues;
+        this.internAcrossResponses = builder.internAcrossResponses;
+        this.parsingExecutor = builder.parsingExecutor;
+        this.httpClientOptions = builder.buildHttpClientOptions();
+        this.transport = builder.transport;
+        this.requestStages = builder.buildRequestStages();
+        this.responseCacheSize = builder.responseCacheSize;
+        this.metadataTimeToLiveNanos = builder.metadataTimeToLiveNanos;
+    }
+
+    /**
+     * @since v5.1
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
     @Override
     public JiraRestClient create(final URI serverUri, final AuthenticationHandler authenticationHandler) {
-        final DisposableHttpClient httpClient = new AsynchronousHttpClientFactory()
-                .createClient(serverUri, authenticationHandler);
-        return new AsynchronousJiraRestClient(serverUri, httpClient);
+        final AsynchronousHttpClientFactory httpClientFactory = new AsynchronousHttpClientFactory();
+        final DisposableHttpClient httpClient = transport != null
+                ? httpClientFactory.createClient(transport, authenticationHandler, parsingExecutor, requestStages)
+                : httpClientFactory.createClient(serverUri, authenticationHandler, httpClientOptions, parsingExecutor,
+                requestStages);
+        return new AsynchronousJiraRestClient(serverUri, httpClient, createParsingOptions(), createResponseCache(),
+                metadataTimeToLiveNanos);
     }
 
     @Override
@@ -47,9 +99,334 @@ public class AsynchronousJiraRestClientFactory implements JiraRestClientFactory
         return create(serverUri, authenticationHandler);
     }
 
+    /**
+     * Wraps given HTTP client as is, the transport options of this factory apply only to clients it creates itself.
+     */
     @Override
     public JiraRestClient create(final URI serverUri, final HttpClient httpClient) {
-        final DisposableHttpClient disposableHttpClient = new AsynchronousHttpClientFactory().createClient(httpClient);
-        return new AsynchronousJiraRestClient(serverUri, disposableHttpClient);
+        final DisposableHttpClient disposableHttpClient = new AsynchronousHttpClientFactory()
+                .createClient(httpClient, null, parsingExecutor, requestStages);
+        return new AsynchronousJiraRestClient(serverUri, disposableHttpClient, createParsingOptions(),
+                createResponseCache(), metadataTimeToLiveNanos);
+    }
+
+    private IssueParsingOptions createParsingOptions() {
+        return IssueParsingOptions.builder()
+                .lazy(lazyIssues)
+                .interner(internAcrossResponses ? EntityInterner.shared(SHARED_INTERNER_MAXIMUM_SIZE,
+                        SHARED_INTERNER_EXPIRY_MINUTES, TimeUnit.MINUTES) : null)
+                .decodingPool(parsingExecutor != null ? parsingExecutor.getForkJoinPool() : null)
+                .build();
+    }
+
+    @Nullable
+    private ResponseCache createResponseCache() {
+        return responseCacheSize > 0 ? new ResponseCache(responseCacheSize) : null;
+    }
+
+    /**
+     * Builder of factories with custom decoding and transport settings. Settings which are not given keep the
+     * defaults of the HTTP client library, which are meant for a handful of concurrent requests; high fan-out
+     * callers should raise the connection limits at least.
+     *
+     * @since v5.1
+     */
+    public static class Builder {
+
+        private boolean lazyIssues;
+        private boolean internAcrossResponses;
+        @Nullable
+        private ResponseParsingExecutor parsingExecutor;
+        @Nullable
+        private HttpClient transport;
+        @Nullable
+        private RetryPolicy retryPolicy;
+        @Nullable
+        private CircuitBreaker circuitBreaker;
+        @Nullable
+        private HedgingPolicy hedgingPolicy;
+        @Nullable
+        private RequestRateLimiter rateLimiter;
+        @Nullable
+        private AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private long responseCacheSize;
+        private long metadataTimeToLiveNanos;
+        @Nullable
+        private Integer maxConnectionsPerHost;
+        @Nullable
+        private Integer maxTotalConnections;
+        @Nullable
+        private Integer ioThreadCount;
+        @Nullable
+        private Integer callbackThreadPoolSize;
+        private long connectionTimeoutMillis = -1;
+        private long socketTimeoutMillis = -1;
+        private long requestTimeoutMillis = -1;
+        private long connectionTimeToLiveMillis = -1;
+
+        /**
+         * Makes issues served by created clients decode their heavier sections (comments, worklogs, changelog,
+         * attachments, links, custom fields, ...) on first access only. Worth it for callers which read just a few
+         * attributes of every issue.
+         *
+         * @param lazyIssues whether issues are decoded on first access, <code>false</code> by default
+         */
+        public Builder lazyIssues(final boolean lazyIssues) {
+            this.lazyIssues = lazyIssues;
+            return this;
+        }
+
+        /**
+         * Shares statuses, issue types, projects, priorities, resolutions and users by all issues of a created
+         * client rather than within each response only. Reduces the retained heap of large issue sets held in
+         * memory, at the cost of serving renamed entities for up to ten minutes.
+         *
+         * @param internAcrossResponses whether entities are shared across responses, <code>false</code> by default
+         */
+        public Builder internAcrossResponses(final boolean internAcrossResponses) {
+            this.internAcrossResponses = internAcrossResponses;
+            return this;
+        }
+
+        /**
+         * Decodes responses on given executor instead of the I/O threads of the HTTP client, which also exposes the
+         * queue depth and processing time of responses. When it runs on a {@link java.util.concurrent.ForkJoinPool},
+         * large search pages are split and their issues decoded in parallel on the same pool.
+         *
+         * @param parsingExecutor executor to decode responses on, <code>null</code> for the I/O threads
+         */
+        public Builder parsingExecutor(@Nullable final ResponseParsingExecutor parsingExecutor) {
+            this.parsingExecutor = parsingExecutor;
+            return this;
+        }
+
+        /**
+         * Replaces the Apache HttpComponents based client with given transport, e.g. one multiplexing concurrent
+         * requests over a few HTTP/2 connections. Requests of all sub-clients still go through the authentication
+         * handler and the parsing executor of created clients. The transport is shared by all clients of the factory
+         * and owned by the caller; the connection and timeout settings of this builder do not apply to it.
+         *
+         * @param transport HTTP client to send requests with, <code>null</code> for the default one
+         */
+        public Builder transport(@Nullable final HttpClient transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Sends idempotent requests of all sub-clients again after transient failures, with the backoff and within
+         * the budget of given policy. Every retry passes the rate and concurrency limits again.
+         *
+         * @param retryPolicy policy of retries, <code>null</code> to hand every failure to the caller at once
+         */
+        public Builder retryPolicy(@Nullable final RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Fails requests to endpoints which keep failing or answering slowly at once, instead of letting them tie
+         * up connections. Requests rejected by an open circuit are not retried.
+         *
+         * @param circuitBreaker circuit breaker keyed by endpoint template, <code>null</code> for none
+         */
+        public Builder circuitBreaker(@Nullable final CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Sends GET requests of all sub-clients which get no response within the usual latency of their endpoint a
+         * second time, and takes whichever response comes first. Hedged requests pass the rate and concurrency
+         * limits like any other, and the circuit breaker sees the latency of the winning one.
+         *
+         * @param hedgingPolicy policy of hedged requests, <code>null</code> to send every request once
+         */
+        public Builder hedgingPolicy(@Nullable final HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Spaces requests of all sub-clients out to the rates of given limiter and defers requests answered with
+         * 429 (Too Many Requests) for the time JIRA asks for. Rate limited requests are delayed before they count
+         * against the {@link #concurrencyLimiter(AdaptiveConcurrencyLimiter) concurrency limit}.
+         *
+         * @param rateLimiter limiter of request rates, <code>null</code> for no limit
+         */
+        public Builder rateLimiter(@Nullable final RequestRateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Makes requests of all sub-clients wait for the limit of given limiter, which adapts the number of
+         * requests in flight to the latency and error rate of JIRA. The limiter is shared by all clients of the
+         * factory and exposes the current limit and queue length.
+         *
+         * @param concurrencyLimiter limiter of requests in flight, <code>null</code> for no limit
+         */
+        public Builder concurrencyLimiter(@Nullable final AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Gives every created client a cache of the issues and projects it fetched, revalidated with JIRA on every
+         * read. Unchanged resources then cost a <code>304 Not Modified</code> answer instead of a full payload to
+         * transfer and parse. Every client gets a cache of its own, as it is filled with the credentials of the
+         * client; its metrics are available from {@link AsynchronousJiraRestClient#getResponseCache()}.
+         *
+         * @param maximumSize maximum number of responses cached by a created client, 0 for no cache
+         */
+        public Builder responseCache(final long maximumSize) {
+            Preconditions.checkArgument(maximumSize >= 0, "maximumSize cannot be negative");
+            this.responseCacheSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Makes the metadata client of every created client a {@link CachingMetadataRestClient}, which serves issue
+         * types, statuses, priorities, resolutions, issue link types, fields and server info from memory and
+         * refreshes them in the background. Its indexes by id and name are available by casting
+         * {@link AsynchronousJiraRestClient#getMetadataClient()}; wrap the metadata client yourself to tune the time
+         * to live of single resources.
+         *
+         * @param timeToLive how long metadata is served before it is fetched again, 0 to always fetch it
+         */
+        public Builder metadataCache(final long timeToLive, final TimeUnit unit) {
+            Preconditions.checkArgument(timeToLive >= 0, "timeToLive cannot be negative");
+            this.metadataTimeToLiveNanos = unit.toNanos(timeToLive);
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerHost maximum number of pooled connections to the JIRA server (a single route)
+         */
+        public Builder maxConnectionsPerHost(final int maxConnectionsPerHost) {
+            Preconditions.checkArgument(maxConnectionsPerHost > 0, "maxConnectionsPerHost must be positive");
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * @param maxTotalConnections maximum number of pooled connections of a client across all routes
+         */
+        public Builder maxTotalConnections(final int maxTotalConnections) {
+            Preconditions.checkArgument(maxTotalConnections > 0, "maxTotalConnections must be positive");
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        /**
+         * @param ioThreadCount number of I/O reactor threads moving the bytes of all connections
+         */
+        public Builder ioThreadCount(final int ioThreadCount) {
+            Preconditions.checkArgument(ioThreadCount > 0, "ioThreadCount must be positive");
+            this.ioThreadCount = ioThreadCount;
+            return this;
+        }
+
+        /**
+         * @param callbackThreadPoolSize maximum number of threads completing responses, unless a
+         *                               {@link #parsingExecutor(ResponseParsingExecutor) parsing executor} takes over
+         */
+        public Builder callbackThreadPoolSize(final int callbackThreadPoolSize) {
+            Preconditions.checkArgument(callbackThreadPoolSize > 0, "callbackThreadPoolSize must be positive");
+            this.callbackThreadPoolSize = callbackThreadPoolSize;
+            return this;
+        }
+
+        /**
+         * @param timeout how long to wait for a connection to be established
+         */
+        public Builder connectionTimeout(final long timeout, final TimeUnit unit) {
+            this.connectionTimeoutMillis = toMillis("connectionTimeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * @param timeout how long to wait for data on an established connection
+         */
+        public Builder socketTimeout(final long timeout, final TimeUnit unit) {
+            this.socketTimeoutMillis = toMillis("socketTimeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * @param timeout how long a whole request may take, from leasing the connection to the last byte received
+         */
+        public Builder requestTimeout(final long timeout, final TimeUnit unit) {
+            this.requestTimeoutMillis = toMillis("requestTimeout", timeout, unit);
+            return this;
+        }
+
+        /**
+         * @param timeToLive how long an idle connection is kept alive in the pool for reuse
+         */
+        public Builder connectionTimeToLive(final long timeToLive, final TimeUnit unit) {
+            this.connectionTimeToLiveMillis = toMillis("connectionTimeToLive", timeToLive, unit);
+            return this;
+        }
+
+        public AsynchronousJiraRestClientFactory build() {
+            return new AsynchronousJiraRestClientFactory(this);
+        }
+
+        List<RequestStage> buildRequestStages() {
+            final ImmutableList.Builder<RequestStage> stages = ImmutableList.builder();
+            if (retryPolicy != null) {
+                stages.add(retryPolicy);
+            }
+            if (circuitBreaker != null) {
+                stages.add(circuitBreaker);
+            }
+            if (hedgingPolicy != null) {
+                stages.add(hedgingPolicy);
+            }
+            if (rateLimiter != null) {
+                stages.add(rateLimiter);
+            }
+            if (concurrencyLimiter != null) {
+                stages.add(concurrencyLimiter);
+            }
+            return stages.build();
+        }
+
+        HttpClientOptions buildHttpClientOptions() {
+            final HttpClientOptions options = new HttpClientOptions();
+            if (maxConnectionsPerHost != null) {
+                options.setMaxConnectionsPerHost(maxConnectionsPerHost);
+            }
+            if (maxTotalConnections != null) {
+                options.setMaxTotalConnections(maxTotalConnections);
+            }
+            if (ioThreadCount != null) {
+                options.setIoReactorThreadCount(ioThreadCount);
+            }
+            if (callbackThreadPoolSize != null) {
+                options.setMaxCallbackThreadPoolSize(callbackThreadPoolSize);
+            }
+            if (connectionTimeoutMillis >= 0) {
+                options.setConnectionTimeout((int) connectionTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (socketTimeoutMillis >= 0) {
+                options.setSocketTimeout((int) socketTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (requestTimeoutMillis >= 0) {
+                options.setRequestTimeout((int) requestTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (connectionTimeToLiveMillis >= 0) {
+                options.setConnectionPoolTimeToLive((int) connectionTimeToLiveMillis, TimeUnit.MILLISECONDS);
+            }
+            return options;
+        }
+
+        private static long toMillis(final String name, final long duration, final TimeUnit unit) {
+            final long millis = unit.toMillis(duration);
+            Preconditions.checkArgument(millis >= 0 && millis <= Integer.MAX_VALUE,
+                    "%s must be between 0 and %s ms", name, Integer.MAX_VALUE);
+            return millis;
+        }
     }
 }
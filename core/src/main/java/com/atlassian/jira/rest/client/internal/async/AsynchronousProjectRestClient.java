@@ -23,6 +23,7 @@ import com.atlassian.jira.rest.client.internal.json.BasicProjectsJsonParser;
 import com.atlassian.jira.rest.client.internal.json.ProjectJsonParser;
 import com.atlassian.util.concurrent.Promise;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 
@@ -40,7 +41,15 @@ public class AsynchronousProjectRestClient extends AbstractAsynchronousRestClien
     private final URI baseUri;
 
     public AsynchronousProjectRestClient(final URI baseUri, final HttpClient client) {
-        super(client);
+        this(baseUri, client, null);
+    }
+
+    /**
+     * @param responseCache cache of fetched projects revalidated with every read, <code>null</code> to always fetch
+     *                      them in full
+     */
+    AsynchronousProjectRestClient(final URI baseUri, final HttpClient client, @Nullable final ResponseCache responseCache) {
+        super(client, responseCache);
         this.baseUri = baseUri;
     }
 
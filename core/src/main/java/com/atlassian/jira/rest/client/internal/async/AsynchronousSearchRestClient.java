@@ -20,13 +20,17 @@ import com.atlassian.jira.rest.client.api.IssueRestClient;
 import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.SearchRestClient;
 import com.atlassian.jira.rest.client.api.domain.Filter;
+import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.jira.rest.client.internal.json.FieldProjection;
 import com.atlassian.jira.rest.client.internal.json.FilterJsonParser;
 import com.atlassian.jira.rest.client.internal.json.GenericJsonArrayParser;
+import com.atlassian.jira.rest.client.internal.json.IssueParsingOptions;
 import com.atlassian.jira.rest.client.internal.json.SearchResultJsonParser;
 import com.atlassian.util.concurrent.Promise;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import org.apache.commons.lang3.StringUtils;
@@ -65,7 +69,8 @@ public class AsynchronousSearchRestClient extends AbstractAsynchronousRestClient
     private static final String EXPAND_ATTRIBUTE = "expand";
     private static final String FIELDS_ATTRIBUTE = "fields";
 
-    private final SearchResultJsonParser searchResultJsonParser = new SearchResultJsonParser();
+    private final SearchResultJsonParser searchResultJsonParser;
+    private final IssueParsingOptions parsingOptions;
     private final FilterJsonParser filterJsonParser = new FilterJsonParser();
     private final GenericJsonArrayParser<Filter> filtersParser = GenericJsonArrayParser.create(new FilterJsonParser());
 
@@ -74,7 +79,16 @@ public class AsynchronousSearchRestClient extends AbstractAsynchronousRestClient
     private final URI baseUri;
 
     public AsynchronousSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient) {
+        this(baseUri, asyncHttpClient, IssueParsingOptions.DEFAULT);
+    }
+
+    /**
+     * @param parsingOptions how found issues are decoded; the projection is overridden by the fields of every search
+     */
+    AsynchronousSearchRestClient(final URI baseUri, final HttpClient asyncHttpClient, final IssueParsingOptions parsingOptions) {
         super(asyncHttpClient);
+        this.searchResultJsonParser = new SearchResultJsonParser(parsingOptions.withProjection(FieldProjection.ALL));
+        this.parsingOptions = parsingOptions;
         this.baseUri = baseUri;
         this.searchUri = UriBuilder.fromUri(baseUri).path(SEARCH_URI_PREFIX).build();
         this.favouriteUri = UriBuilder.fromUri(baseUri).path(FILTER_FAVOURITE_PATH).build();
@@ -106,7 +120,15 @@ public class AsynchronousSearchRestClient extends AbstractAsynchronousRestClient
         addOptionalQueryParam(uriBuilder, MAX_RESULTS_ATTRIBUTE, maxResults);
         addOptionalQueryParam(uriBuilder, START_AT_ATTRIBUTE, startAt);
 
-        return getAndParse(uriBuilder.build(), searchResultJsonParser);
+        return getAndParse(uriBuilder.build(), searchResultParser(fields));
+    }
+
+    /**
+     * Issues of a search restricted to some fields are parsed without expecting (or decoding) any other field.
+     */
+    private SearchResultJsonParser searchResultParser(@Nullable final Set<String> fields) {
+        final FieldProjection projection = FieldProjection.of(fields);
+        return projection.isAll() ? searchResultJsonParser : new SearchResultJsonParser(parsingOptions.withProjection(projection));
     }
 
     private void addOptionalQueryParam(final UriBuilder uriBuilder, final String key, final Object... values) {
@@ -130,7 +152,24 @@ public class AsynchronousSearchRestClient extends AbstractAsynchronousRestClient
         } catch (JSONException e) {
             throw new RestClientException(e);
         }
-        return postAndParse(searchUri, postEntity, searchResultJsonParser);
+        return postAndParse(searchUri, postEntity, searchResultParser(fields));
+    }
+
+    @Override
+    public Iterable<Issue> searchAll(@Nullable String jql, int pageSize, int prefetchPages, @Nullable Set<String> fields) {
+        return new SearchResultIterable(this, jql, pageSize, prefetchPages, fields);
+    }
+
+    @Override
+    public Iterable<Issue> searchAllParallel(@Nullable String jql, int pageSize, int maxConcurrentRequests,
+                                             boolean preserveOrder, @Nullable Set<String> fields) {
+        Preconditions.checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+        return new SearchResultIterable(this, jql, pageSize, maxConcurrentRequests, fields, !preserveOrder);
+    }
+
+    @Override
+    public Iterable<Issue> searchAllByKeyset(@Nullable String jql, int pageSize, @Nullable Set<String> fields) {
+        return new KeysetSearchResultIterable(this, jql, pageSize, fields);
     }
 
     @Override
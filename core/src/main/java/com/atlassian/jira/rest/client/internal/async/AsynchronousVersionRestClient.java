@@ -42,6 +42,14 @@ import java.net.URI;
  */
 public class AsynchronousVersionRestClient extends AbstractAsynchronousRestClient implements VersionRestClient {
 
+    private final VersionJsonParser versionJsonParser = new VersionJsonParser();
+    private final VersionRelatedIssueCountJsonParser versionRelatedIssueCountJsonParser = new VersionRelatedIssueCountJsonParser();
+    private final JsonObjectParser<Integer> unresolvedIssueCountParser = new JsonObjectParser<Integer>() {
+        @Override
+        public Integer parse(JSONObject json) throws JSONException {
+            return json.getInt("issuesUnresolvedCount");
+        }
+    };
     private final URI versionRootUri;
 
     public AsynchronousVersionRestClient(URI baseUri, final HttpClient client) {
@@ -51,7 +59,7 @@ public class AsynchronousVersionRestClient extends AbstractAsynchronousRestClien
 
     @Override
     public Promise<Version> getVersion(final URI versionUri) {
-        return getAndParse(versionUri, new VersionJsonParser());
+        return getAndParse(versionUri, versionJsonParser);
     }
 
     @Override
@@ -80,18 +88,13 @@ public class AsynchronousVersionRestClient extends AbstractAsynchronousRestClien
     @Override
     public Promise<VersionRelatedIssuesCount> getVersionRelatedIssuesCount(final URI versionUri) {
         final URI relatedIssueCountsUri = UriBuilder.fromUri(versionUri).path("relatedIssueCounts").build();
-        return getAndParse(relatedIssueCountsUri, new VersionRelatedIssueCountJsonParser());
+        return getAndParse(relatedIssueCountsUri, versionRelatedIssueCountJsonParser);
     }
 
     @Override
     public Promise<Integer> getNumUnresolvedIssues(final URI versionUri) {
         final URI unresolvedIssueCountUri = UriBuilder.fromUri(versionUri).path("unresolvedIssueCount").build();
-        return getAndParse(unresolvedIssueCountUri, new JsonObjectParser<Integer>() {
-            @Override
-            public Integer parse(JSONObject json) throws JSONException {
-                return json.getInt("issuesUnresolvedCount");
-            }
-        });
+        return getAndParse(unresolvedIssueCountUri, unresolvedIssueCountParser);
     }
 
     @Override
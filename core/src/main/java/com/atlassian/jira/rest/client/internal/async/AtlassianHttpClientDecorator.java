@@ -7,7 +7,21 @@ import com.atlassian.httpclient.api.ResponsePromise;
 import com.atlassian.httpclient.api.ResponseTransformation;
 import com.atlassian.jira.rest.client.api.AuthenticationHandler;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 /**
@@ -17,10 +31,42 @@ public abstract class AtlassianHttpClientDecorator implements DisposableHttpClie
 
     private final HttpClient httpClient;
     private final AuthenticationHandler authenticationHandler;
+    @Nullable
+    private final ResponseParsingExecutor parsingExecutor;
+    private final List<RequestStage> stages;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
 
     public AtlassianHttpClientDecorator(HttpClient httpClient, AuthenticationHandler authenticationHandler) {
+        this(httpClient, authenticationHandler, null);
+    }
+
+    /**
+     * @param parsingExecutor executor to complete responses on, <code>null</code> to process them on the I/O threads
+     *                        of the HTTP client
+     */
+    public AtlassianHttpClientDecorator(HttpClient httpClient, AuthenticationHandler authenticationHandler,
+                                        @Nullable ResponseParsingExecutor parsingExecutor) {
+        this(httpClient, authenticationHandler, parsingExecutor, Collections.<RequestStage>emptyList(), null);
+    }
+
+    /**
+     * @param parsingExecutor executor to complete responses on, <code>null</code> to process them on the I/O threads
+     *                        of the HTTP client
+     * @param stages          stages every request passes through, in order, before it reaches the HTTP client
+     * @param scheduler       executor the stages delay requests on, owned by this client and to be shut down by
+     *                        {@link #destroy()}; required when there are stages
+     * @since v5.1
+     */
+    public AtlassianHttpClientDecorator(HttpClient httpClient, AuthenticationHandler authenticationHandler,
+                                        @Nullable ResponseParsingExecutor parsingExecutor, List<? extends RequestStage> stages,
+                                        @Nullable ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(stages.isEmpty() || scheduler != null, "stages need a scheduler");
         this.httpClient = httpClient;
         this.authenticationHandler = authenticationHandler;
+        this.parsingExecutor = parsingExecutor;
+        this.stages = ImmutableList.copyOf(stages);
+        this.scheduler = scheduler;
     }
 
     public void flushCacheByUriPattern(Pattern urlPattern) {
@@ -65,8 +111,41 @@ public abstract class AtlassianHttpClientDecorator implements DisposableHttpClie
     }
 
     @Override
-    public ResponsePromise execute(Request request) {
-        return httpClient.execute(request);
+    public ResponsePromise execute(final Request request) {
+        // a built request holds its body as a stream, which is read by the first attempt
+        final Supplier<ResponsePromise> send = () -> httpClient.execute(request);
+        return offload(executeStages(request, 0, request.hasEntity() ? once(send) : send::get));
+    }
+
+    private ResponsePromise executeStages(final Request request, final int index, final RequestStage.Next transport) {
+        if (index == stages.size()) {
+            return transport.get();
+        }
+        final Supplier<ResponsePromise> next = () -> executeStages(request, index + 1, transport);
+        return stages.get(index).execute(request, transport.isRepeatable() ? next::get : once(next), scheduler);
+    }
+
+    /**
+     * @return attempt which can be sent only once
+     */
+    private static RequestStage.Next once(final Supplier<ResponsePromise> send) {
+        final AtomicBoolean sent = new AtomicBoolean();
+        return new RequestStage.Next() {
+            @Override
+            public ResponsePromise get() {
+                Preconditions.checkState(sent.compareAndSet(false, true), "the body of the request cannot be sent again");
+                return send.get();
+            }
+
+            @Override
+            public boolean isRepeatable() {
+                return false;
+            }
+        };
+    }
+
+    private ResponsePromise offload(ResponsePromise responsePromise) {
+        return parsingExecutor != null ? parsingExecutor.offload(responsePromise) : responsePromise;
     }
 
     private class AuthenticatedRequestBuilder extends DefaultRequest.DefaultRequestBuilder {
@@ -75,12 +154,48 @@ public abstract class AtlassianHttpClientDecorator implements DisposableHttpClie
         }
 
         @Override
-        public ResponsePromise execute(Request.Method method) {
+        public ResponsePromise execute(final Request.Method method) {
+            this.setMethod(method);
             if (authenticationHandler != null) {
-                this.setMethod(method);
                 authenticationHandler.configure(this);
             }
-            return super.execute(method);
+            if (stages.isEmpty()) {
+                return offload(super.execute(method));
+            }
+            final Request request = build();
+            return offload(executeStages(request, 0, attempts(request)));
+        }
+
+        /**
+         * Stages may send a request several times, but its body is a stream which can be read only once. A body
+         * already held in memory, like the JSON of all requests of the client, is therefore copied and every attempt
+         * is built with a fresh stream of the copy. Any other body is sent once.
+         */
+        private RequestStage.Next attempts(final Request request) {
+            if (!request.hasEntity()) {
+                return () -> httpClient.execute(request);
+            }
+            final InputStream entityStream = request.getEntityStream();
+            if (!(entityStream instanceof ByteArrayInputStream)) {
+                return once(() -> send(entityStream));
+            }
+            final byte[] entity;
+            try {
+                entity = ByteStreams.toByteArray(entityStream);
+            } catch (IOException e) {
+                // cannot happen, the stream is backed by an array
+                throw new UncheckedIOException(e);
+            }
+            return () -> send(new ByteArrayInputStream(entity));
+        }
+
+        private ResponsePromise send(final InputStream entityStream) {
+            final Request attempt;
+            synchronized (this) {
+                setEntity(entityStream);
+                attempt = build();
+            }
+            return httpClient.execute(attempt);
         }
     }
 }
@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.MetadataRestClient;
+import com.atlassian.jira.rest.client.api.domain.Field;
+import com.atlassian.jira.rest.client.api.domain.IssueType;
+import com.atlassian.jira.rest.client.api.domain.IssuelinksType;
+import com.atlassian.jira.rest.client.api.domain.Priority;
+import com.atlassian.jira.rest.client.api.domain.Resolution;
+import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.api.domain.Status;
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serves the metadata of JIRA (issue types, statuses, priorities, resolutions, issue link types, fields and server
+ * info) from memory, as it changes a few times a year while importing or validating code reads it for every record.
+ * <ul>
+ * <li>Every resource is kept for its time to live, and refreshed in the background once the given share of it has
+ * passed, so that callers do not wait for a refresh as long as the resource is read often enough.</li>
+ * <li>When a refresh fails, the previous value keeps being served, even past its time to live, and the refresh is
+ * tried again a few seconds later.</li>
+ * <li>Single entities are looked up in the cached lists by their self URI, and the lists are also available as
+ * {@link MetadataIndex indexes} by id and name.</li>
+ * </ul>
+ * Wraps any metadata client, typically the one of a {@link com.atlassian.jira.rest.client.api.JiraRestClient}:
+ * <pre>
+ * CachingMetadataRestClient metadata = CachingMetadataRestClient.builder(client.getMetadataClient())
+ *         .timeToLive(CachingMetadataRestClient.Resource.FIELDS, 10, TimeUnit.MINUTES)
+ *         .build();
+ * </pre>
+ *
+ * @since v5.1
+ */
+public class CachingMetadataRestClient implements MetadataRestClient {
+
+    public enum Resource {
+        ISSUE_TYPES, ISSUE_LINK_TYPES, STATUSES, PRIORITIES, RESOLUTIONS, FIELDS, SERVER_INFO
+    }
+
+    public static final long DEFAULT_TIME_TO_LIVE_MINUTES = 60;
+    public static final double DEFAULT_REFRESH_AHEAD_RATIO = 0.8;
+
+    private static final long RETRY_AFTER_FAILURE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MetadataRestClient delegate;
+    private final Ticker ticker;
+    private final CachedResource<MetadataIndex<Long, IssueType>> issueTypes;
+    private final CachedResource<MetadataIndex<String, IssuelinksType>> issueLinkTypes;
+    private final CachedResource<MetadataIndex<Long, Status>> statuses;
+    private final CachedResource<MetadataIndex<Long, Priority>> priorities;
+    private final CachedResource<MetadataIndex<Long, Resolution>> resolutions;
+    private final CachedResource<MetadataIndex<String, Field>> fields;
+    private final CachedResource<ServerInfo> serverInfo;
+
+    public CachingMetadataRestClient(final MetadataRestClient delegate) {
+        this(builder(delegate));
+    }
+
+    private CachingMetadataRestClient(final Builder builder) {
+        this.delegate = builder.delegate;
+        this.ticker = builder.ticker;
+        issueTypes = cache(builder, Resource.ISSUE_TYPES, () -> delegate.getIssueTypes()
+                .map(values -> new MetadataIndex<>(values, IssueType::getId, IssueType::getName, IssueType::getSelf)));
+        issueLinkTypes = cache(builder, Resource.ISSUE_LINK_TYPES, () -> delegate.getIssueLinkTypes()
+                .map(values -> new MetadataIndex<>(values, IssuelinksType::getId, IssuelinksType::getName,
+                        IssuelinksType::getSelf)));
+        statuses = cache(builder, Resource.STATUSES, () -> delegate.getStatuses()
+                .map(values -> new MetadataIndex<>(values, Status::getId, Status::getName, Status::getSelf)));
+        priorities = cache(builder, Resource.PRIORITIES, () -> delegate.getPriorities()
+                .map(values -> new MetadataIndex<>(values, Priority::getId, Priority::getName, Priority::getSelf)));
+        resolutions = cache(builder, Resource.RESOLUTIONS, () -> delegate.getResolutions()
+                .map(values -> new MetadataIndex<>(values, Resolution::getId, Resolution::getName, Resolution::getSelf)));
+        fields = cache(builder, Resource.FIELDS, () -> delegate.getFields()
+                .map(values -> new MetadataIndex<>(values, Field::getId, Field::getName, null)));
+        serverInfo = cache(builder, Resource.SERVER_INFO, delegate::getServerInfo);
+    }
+
+    private <T> CachedResource<T> cache(final Builder builder, final Resource resource, final Supplier<Promise<T>> loader) {
+        final Long timeToLive = builder.timesToLive.get(resource);
+        return new CachedResource<>(loader, timeToLive != null ? timeToLive : builder.defaultTimeToLiveNanos,
+                builder.refreshAheadRatio);
+    }
+
+    public static Builder builder(final MetadataRestClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public Promise<IssueType> getIssueType(final URI uri) {
+        return lookUp(issueTypes, uri, delegate::getIssueType);
+    }
+
+    @Override
+    public Promise<Iterable<IssueType>> getIssueTypes() {
+        return issueTypes.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<Long, IssueType>> getIssueTypeIndex() {
+        return issueTypes.get();
+    }
+
+    @Override
+    public Promise<Iterable<IssuelinksType>> getIssueLinkTypes() {
+        return issueLinkTypes.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<String, IssuelinksType>> getIssueLinkTypeIndex() {
+        return issueLinkTypes.get();
+    }
+
+    @Override
+    public Promise<Status> getStatus(final URI uri) {
+        return lookUp(statuses, uri, delegate::getStatus);
+    }
+
+    @Override
+    public Promise<Iterable<Status>> getStatuses() {
+        return statuses.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<Long, Status>> getStatusIndex() {
+        return statuses.get();
+    }
+
+    @Override
+    public Promise<Priority> getPriority(final URI uri) {
+        return lookUp(priorities, uri, delegate::getPriority);
+    }
+
+    @Override
+    public Promise<Iterable<Priority>> getPriorities() {
+        return priorities.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<Long, Priority>> getPriorityIndex() {
+        return priorities.get();
+    }
+
+    @Override
+    public Promise<Resolution> getResolution(final URI uri) {
+        return lookUp(resolutions, uri, delegate::getResolution);
+    }
+
+    @Override
+    public Promise<Iterable<Resolution>> getResolutions() {
+        return resolutions.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<Long, Resolution>> getResolutionIndex() {
+        return resolutions.get();
+    }
+
+    @Override
+    public Promise<ServerInfo> getServerInfo() {
+        return serverInfo.get();
+    }
+
+    @Override
+    public Promise<Iterable<Field>> getFields() {
+        return fields.get().map(MetadataIndex::values);
+    }
+
+    public Promise<MetadataIndex<String, Field>> getFieldIndex() {
+        return fields.get();
+    }
+
+    /**
+     * Drops all cached metadata, e.g. after an administrator changed the workflows.
+     */
+    public void invalidateAll() {
+        issueTypes.invalidate();
+        issueLinkTypes.invalidate();
+        statuses.invalidate();
+        priorities.invalidate();
+        resolutions.invalidate();
+        fields.invalidate();
+        serverInfo.invalidate();
+    }
+
+    /**
+     * Looks an entity up in the cached list, falling back to the delegate for entities not listed, e.g. created
+     * since the list was fetched.
+     */
+    private static <T> Promise<T> lookUp(final CachedResource<? extends MetadataIndex<?, T>> cache, final URI uri,
+                                         final Function<URI, Promise<T>> fetch) {
+        return cache.get().<T>flatMap(index -> {
+            final T value = index.bySelf(uri);
+            return value != null ? Promises.promise(value) : fetch.apply(uri);
+        });
+    }
+
+    private class CachedResource<T> {
+        private final Supplier<Promise<T>> loader;
+        private final long timeToLiveNanos;
+        private final long refreshAheadNanos;
+
+        // guarded by this
+        private T value;
+        private long loadedAt;
+        private long retryAt;
+        private SettableFuture<T> loading;
+        // incremented on invalidation, so that loads started before do not fill the cache again
+        private long generation;
+
+        CachedResource(final Supplier<Promise<T>> loader, final long timeToLiveNanos, final double refreshAheadRatio) {
+            this.loader = loader;
+            this.timeToLiveNanos = timeToLiveNanos;
+            this.refreshAheadNanos = (long) (timeToLiveNanos * refreshAheadRatio);
+        }
+
+        Promise<T> get() {
+            final T cached;
+            final SettableFuture<T> pending;
+            final boolean load;
+            final boolean serveCached;
+            final long loadGeneration;
+            synchronized (this) {
+                final long now = ticker.read();
+                cached = value;
+                final boolean expired = cached == null || now - loadedAt >= timeToLiveNanos;
+                final boolean refresh = expired || now - loadedAt >= refreshAheadNanos;
+                load = loading == null && refresh && (cached == null || now - retryAt >= 0);
+                if (load) {
+                    loading = SettableFuture.create();
+                }
+                pending = loading;
+                loadGeneration = generation;
+                // fresh, or stale while a failed refresh waits to be tried again
+                serveCached = cached != null && (!expired || pending == null);
+            }
+            if (load) {
+                load(pending, loadGeneration);
+            }
+            if (serveCached) {
+                return Promises.promise(cached);
+            }
+            final Promise<T> loaded = Promises.forListenableFuture(pending);
+            return cached == null ? loaded : loaded.recover(failure -> cached);
+        }
+
+        private void load(final SettableFuture<T> pending, final long loadGeneration) {
+            final Promise<T> promise;
+            try {
+                promise = loader.get();
+            } catch (RuntimeException e) {
+                failed(pending, loadGeneration, e);
+                return;
+            }
+            promise.done(loaded -> {
+                synchronized (this) {
+                    if (generation == loadGeneration) {
+                        value = loaded;
+                        loadedAt = ticker.read();
+                        loading = null;
+                    }
+                }
+                pending.set(loaded);
+            }).fail(failure -> failed(pending, loadGeneration, failure));
+        }
+
+        private void failed(final SettableFuture<T> pending, final long loadGeneration, final Throwable failure) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    retryAt = ticker.read() + RETRY_AFTER_FAILURE_NANOS;
+                    loading = null;
+                }
+            }
+            pending.setException(failure);
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            value = null;
+            loading = null;
+        }
+    }
+
+    public static class Builder {
+        private final MetadataRestClient delegate;
+        private final Map<Resource, Long> timesToLive = new EnumMap<>(Resource.class);
+        private long defaultTimeToLiveNanos = TimeUnit.MINUTES.toNanos(DEFAULT_TIME_TO_LIVE_MINUTES);
+        private double refreshAheadRatio = DEFAULT_REFRESH_AHEAD_RATIO;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder(final MetadataRestClient delegate) {
+            this.delegate = Preconditions.checkNotNull(delegate);
+        }
+
+        /**
+         * @param timeToLive how long resources without a time to live of their own are served before they are fetched
+         *                   again
+         */
+        public Builder timeToLive(final long timeToLive, final TimeUnit unit) {
+            Preconditions.checkArgument(timeToLive > 0, "timeToLive must be positive");
+            this.defaultTimeToLiveNanos = unit.toNanos(timeToLive);
+            return this;
+        }
+
+        /**
+         * @param timeToLive how long given resource is served before it is fetched again
+         */
+        public Builder timeToLive(final Resource resource, final long timeToLive, final TimeUnit unit) {
+            Preconditions.checkArgument(timeToLive > 0, "timeToLive must be positive");
+            timesToLive.put(resource, unit.toNanos(timeToLive));
+            return this;
+        }
+
+        /**
+         * @param refreshAheadRatio share of the time to live of a resource after which it is refreshed in the
+         *                          background, 1 to refresh only expired resources, on read
+         */
+        public Builder refreshAhead(final double refreshAheadRatio) {
+            Preconditions.checkArgument(refreshAheadRatio > 0 && refreshAheadRatio <= 1,
+                    "refreshAheadRatio must be in (0, 1]");
+            this.refreshAheadRatio = refreshAheadRatio;
+            return this;
+        }
+
+        Builder ticker(final Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public CachingMetadataRestClient build() {
+            return new CachingMetadataRestClient(this);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stops sending requests to an endpoint which keeps failing or answering slowly, so that it does not tie up the
+ * connections healthy endpoints need. Every endpoint template (e.g. <code>search</code> or
+ * <code>issue/{}/comment</code>) has its own circuit, which:
+ * <ul>
+ * <li>is <b>closed</b> while the share of failed (I/O errors, 5xx answers) or slow calls among the recent calls
+ * stays under the thresholds, and lets all requests through,</li>
+ * <li>gets <b>open</b> when either share reaches its threshold, and then fails requests at once with a
+ * {@link RejectedExecutionException} for the open duration,</li>
+ * <li>gets <b>half-open</b> afterwards, letting a few trial requests through: it closes again when all of them
+ * succeed and opens again on the first failure.</li>
+ * </ul>
+ * Registered {@link Listener}s are notified of every state transition.
+ *
+ * @since v5.1
+ */
+public class CircuitBreaker implements RequestStage {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Receives the state transitions of all circuits, on the thread which caused them.
+     */
+    public interface Listener {
+        void onStateChange(String endpoint, State from, State to);
+    }
+
+    public static final int DEFAULT_WINDOW_SIZE = 50;
+    public static final int DEFAULT_MINIMUM_CALLS = 20;
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+    public static final long DEFAULT_SLOW_CALL_MILLIS = 10000;
+    public static final long DEFAULT_OPEN_MILLIS = 30000;
+    public static final int DEFAULT_HALF_OPEN_TRIALS = 3;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenTrials;
+    private final Ticker ticker;
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public CircuitBreaker() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_RATE_THRESHOLD,
+                DEFAULT_SLOW_CALL_MILLIS, DEFAULT_OPEN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_HALF_OPEN_TRIALS);
+    }
+
+    /**
+     * @param windowSize            number of most recent calls of an endpoint the rates are computed from
+     * @param minimumCalls          number of calls an endpoint needs in the window before its circuit can open
+     * @param failureRateThreshold  share of failed calls which opens the circuit
+     * @param slowCallRateThreshold share of slow calls which opens the circuit
+     * @param slowCall              calls taking longer count as slow
+     * @param open                  how long an open circuit fails requests before it lets trial requests through
+     * @param unit                  time unit of the durations
+     * @param halfOpenTrials        number of trial requests which have to succeed to close the circuit
+     */
+    public CircuitBreaker(final int windowSize, final int minimumCalls, final double failureRateThreshold,
+                          final double slowCallRateThreshold, final long slowCall, final long open, final TimeUnit unit,
+                          final int halfOpenTrials) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCall, open, unit, halfOpenTrials,
+                Ticker.systemTicker());
+    }
+
+    CircuitBreaker(final int windowSize, final int minimumCalls, final double failureRateThreshold,
+                   final double slowCallRateThreshold, final long slowCall, final long open, final TimeUnit unit,
+                   final int halfOpenTrials, final Ticker ticker) {
+        Preconditions.checkArgument(windowSize > 0, "windowSize must be positive");
+        Preconditions.checkArgument(minimumCalls > 0 && minimumCalls <= windowSize,
+                "minimumCalls must be between 1 and windowSize");
+        Preconditions.checkArgument(failureRateThreshold > 0 && failureRateThreshold <= 1,
+                "failureRateThreshold must be in (0, 1]");
+        Preconditions.checkArgument(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1,
+                "slowCallRateThreshold must be in (0, 1]");
+        Preconditions.checkArgument(halfOpenTrials > 0, "halfOpenTrials must be positive");
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = unit.toNanos(slowCall);
+        this.openNanos = unit.toNanos(open);
+        this.halfOpenTrials = halfOpenTrials;
+        this.ticker = ticker;
+    }
+
+    public void addListener(final Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return state of the circuit of given endpoint template, e.g. <code>issue/{}</code>
+     */
+    public State getState(final String endpoint) {
+        final Circuit circuit = circuits.get(endpoint);
+        return circuit != null ? circuit.getState() : State.CLOSED;
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request, final Next next,
+                                   final ScheduledExecutorService scheduler) {
+        return execute(Endpoints.template(request.getUri()), next);
+    }
+
+    ResponsePromise execute(final String endpoint, final Supplier<ResponsePromise> next) {
+        final Circuit circuit = circuits.computeIfAbsent(endpoint, Circuit::new);
+        final long generation = circuit.acquire();
+        if (generation < 0) {
+            return ResponsePromiseSupport.failed(new RejectedExecutionException("Circuit breaker open for " + endpoint));
+        }
+        final long start = ticker.read();
+        final ResponsePromise responsePromise;
+        try {
+            responsePromise = next.get();
+        } catch (RuntimeException e) {
+            circuit.record(generation, Outcome.FAILURE);
+            throw e;
+        }
+        responsePromise.addListener(() -> circuit.record(generation,
+                getOutcome(responsePromise, ticker.read() - start)), Runnable::run);
+        return responsePromise;
+    }
+
+    private Outcome getOutcome(final ResponsePromise responsePromise, final long latencyNanos) {
+        try {
+            final Response response = responsePromise.get();
+            if (response != null && response.getStatusCode() >= 500) {
+                return Outcome.FAILURE;
+            }
+            return latencyNanos > slowCallNanos ? Outcome.SLOW : Outcome.SUCCESS;
+        } catch (ExecutionException e) {
+            return Outcome.FAILURE;
+        } catch (CancellationException e) {
+            return Outcome.IGNORED;
+        } catch (InterruptedException e) {
+            // cannot happen, the promise is already done
+            Thread.currentThread().interrupt();
+            return Outcome.IGNORED;
+        }
+    }
+
+    private void fire(final String endpoint, final State from, final State to) {
+        for (Listener listener : listeners) {
+            listener.onStateChange(endpoint, from, to);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, SLOW, IGNORED
+    }
+
+    private class Circuit {
+        private final String endpoint;
+
+        // guarded by this
+        private State state = State.CLOSED;
+        // incremented on every transition, so that calls let through in one state are not counted in another
+        private long generation;
+        private long openedAt;
+        private int trials;
+        private int succeededTrials;
+        private final Outcome[] window = new Outcome[windowSize];
+        private int windowPosition;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+
+        Circuit(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * @return generation of the call to pass to {@link #record(long, Outcome)} or -1 if the call is rejected
+         */
+        long acquire() {
+            final List<State> transition;
+            final long permit;
+            synchronized (this) {
+                transition = state == State.OPEN && ticker.read() - openedAt >= openNanos
+                        ? transition(State.HALF_OPEN) : ImmutableList.<State>of();
+                if (state == State.CLOSED) {
+                    permit = generation;
+                } else if (state == State.HALF_OPEN && trials < halfOpenTrials) {
+                    trials++;
+                    permit = generation;
+                } else {
+                    permit = -1;
+                }
+            }
+            fire(transition);
+            return permit;
+        }
+
+        void record(final long callGeneration, final Outcome outcome) {
+            final List<State> transition;
+            synchronized (this) {
+                if (callGeneration != generation) {
+                    return;
+                }
+                if (outcome == Outcome.IGNORED) {
+                    if (state == State.HALF_OPEN) {
+                        // free the trial for another request
+                        trials--;
+                    }
+                    return;
+                }
+                if (state == State.HALF_OPEN) {
+                    if (outcome != Outcome.SUCCESS) {
+                        transition = transition(State.OPEN);
+                    } else if (++succeededTrials == halfOpenTrials) {
+                        transition = transition(State.CLOSED);
+                    } else {
+                        transition = ImmutableList.of();
+                    }
+                } else if (state == State.CLOSED) {
+                    add(outcome);
+                    transition = calls >= minimumCalls && (failures >= failureRateThreshold * calls
+                            || slowCalls >= slowCallRateThreshold * calls) ? transition(State.OPEN) : ImmutableList.<State>of();
+                } else {
+                    transition = ImmutableList.of();
+                }
+            }
+            fire(transition);
+        }
+
+        private void add(final Outcome outcome) {
+            final Outcome evicted = window[windowPosition];
+            if (evicted == null) {
+                calls++;
+            } else {
+                count(evicted, -1);
+            }
+            window[windowPosition] = outcome;
+            windowPosition = (windowPosition + 1) % windowSize;
+            count(outcome, 1);
+        }
+
+        private void count(final Outcome outcome, final int delta) {
+            if (outcome == Outcome.FAILURE) {
+                failures += delta;
+            } else if (outcome == Outcome.SLOW) {
+                slowCalls += delta;
+            }
+        }
+
+        /**
+         * @return previous and new state
+         */
+        private List<State> transition(final State to) {
+            final State from = state;
+            state = to;
+            generation++;
+            trials = 0;
+            succeededTrials = 0;
+            if (to == State.OPEN) {
+                openedAt = ticker.read();
+            } else if (to == State.CLOSED) {
+                Arrays.fill(window, null);
+                windowPosition = 0;
+                calls = 0;
+                failures = 0;
+                slowCalls = 0;
+            }
+            return ImmutableList.of(from, to);
+        }
+
+        private void fire(final List<State> transition) {
+            if (!transition.isEmpty()) {
+                CircuitBreaker.this.fire(endpoint, transition.get(0), transition.get(1));
+            }
+        }
+    }
+}
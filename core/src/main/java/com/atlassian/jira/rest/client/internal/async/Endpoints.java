@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.base.Splitter;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies request URIs by the JIRA REST resource they address.
+ *
+ * @since v5.1
+ */
+final class Endpoints {
+
+    /**
+     * Group and template of all URIs which do not address a REST resource, e.g. attachment downloads. Their paths
+     * carry ids and file names in no fixed place, so keying by them would add an endpoint for every file.
+     */
+    static final String NON_REST = "non-rest";
+    private static final Splitter PATH_SPLITTER = Splitter.on('/').omitEmptyStrings();
+    /**
+     * Numeric ids, issue keys and project keys.
+     */
+    private static final Pattern ID_OR_KEY = Pattern.compile("\\d+|[A-Z][A-Z0-9_]*(-\\d+)?");
+
+    private Endpoints() {
+    }
+
+    /**
+     * @return first resource segment following <code>rest/&lt;api&gt;/&lt;version&gt;</code>, e.g. <code>issue</code>
+     * for <code>/jira/rest/api/2/issue/TST-1/comment</code> or <code>session</code> for
+     * <code>/jira/rest/auth/1/session</code>, or {@link #NON_REST} when it does not address a REST resource
+     */
+    static String group(final URI uri) {
+        final String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        final Iterator<String> segments = PATH_SPLITTER.split(path).iterator();
+        while (segments.hasNext()) {
+            if ("rest".equals(segments.next())) {
+                if (!segments.hasNext()) {
+                    break;
+                }
+                final String api = segments.next();
+                if (segments.hasNext()) {
+                    // version
+                    segments.next();
+                }
+                return segments.hasNext() ? segments.next() : api;
+            }
+        }
+        return NON_REST;
+    }
+
+    /**
+     * @return path of the REST resource following <code>rest/&lt;api&gt;/&lt;version&gt;</code> with ids and keys
+     * replaced by <code>{}</code>, e.g. <code>issue/{}/comment</code> for <code>/jira/rest/api/2/issue/TST-1/comment</code>
+     * and <code>issue/createmeta</code> for <code>/jira/rest/api/2/issue/createmeta</code>, or {@link #NON_REST} when
+     * the URI does not address a REST resource
+     */
+    static String template(final URI uri) {
+        final String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        final List<String> segments = PATH_SPLITTER.splitToList(path);
+        final int rest = segments.indexOf("rest");
+        if (rest < 0 || segments.size() <= rest + 3) {
+            return group(uri);
+        }
+        final StringBuilder template = new StringBuilder();
+        for (String segment : segments.subList(rest + 3, segments.size())) {
+            if (template.length() > 0) {
+                template.append('/');
+            }
+            template.append(ID_OR_KEY.matcher(segment).matches() ? "{}" : segment);
+        }
+        return template.toString();
+    }
+}
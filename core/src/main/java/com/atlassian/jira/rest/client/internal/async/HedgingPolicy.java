@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cuts the tail latency of GET requests: when a GET gets no response within the given percentile of the recent
+ * latencies of its endpoint template, a second, identical request is sent and whichever responds first wins, the
+ * other one is cancelled. A slow JIRA node then delays only the requests which land on it twice in a row.
+ * <p>
+ * Hedging starts once an endpoint has enough latency samples. A budget caps the extra load: every GET earns a
+ * fraction of a hedge, every hedge spends a whole one. Other methods are sent once, as they are not safe to repeat.
+ *
+ * @since v5.1
+ */
+public class HedgingPolicy implements RequestStage {
+
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    public static final double DEFAULT_BUDGET_RATIO = 0.05;
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 10;
+
+    static final int SAMPLE_SIZE = 256;
+    static final int MIN_SAMPLES = 50;
+    private static final int MAX_BUDGET = 10;
+
+    private final double percentile;
+    private final double budgetRatio;
+    private final long minDelayNanos;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, LatencySamples> latencies = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private double budget = MAX_BUDGET;
+    private long hedgedRequests;
+    private long failedHedges;
+
+    /**
+     * Creates a policy with the default percentile and budget, sending hedges on the scheduler of the client they
+     * belong to.
+     */
+    public HedgingPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_BUDGET_RATIO, DEFAULT_MIN_DELAY_MILLIS, TimeUnit.MILLISECONDS, null);
+    }
+
+    /**
+     * @param percentile  percentile of the recent latencies of an endpoint after which a GET is hedged, e.g. 0.95
+     * @param budgetRatio fraction of a hedge every GET earns, i.e. the most hedging adds to the load
+     * @param minDelay    a GET is never hedged sooner, even for endpoints answering faster
+     * @param unit        time unit of the minimum delay
+     * @param scheduler   executor sending the hedged requests, owned by the caller; <code>null</code> to use the
+     *                    scheduler of the client sending the request, which is shut down together with that client
+     */
+    public HedgingPolicy(final double percentile, final double budgetRatio, final long minDelay, final TimeUnit unit,
+                         @Nullable final ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(percentile > 0 && percentile < 1, "percentile must be in (0, 1)");
+        Preconditions.checkArgument(budgetRatio >= 0 && budgetRatio <= 1, "budgetRatio must be in [0, 1]");
+        this.percentile = percentile;
+        this.budgetRatio = budgetRatio;
+        this.minDelayNanos = unit.toNanos(minDelay);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request, final Next next,
+                                   final ScheduledExecutorService scheduler) {
+        if (request.getMethod() != Request.Method.GET || !next.isRepeatable()) {
+            return next.get();
+        }
+        return execute(Endpoints.template(request.getUri()), next, this.scheduler != null ? this.scheduler : scheduler);
+    }
+
+    ResponsePromise execute(final String endpoint, final Supplier<ResponsePromise> next,
+                            final ScheduledExecutorService scheduler) {
+        final LatencySamples samples = latencies.computeIfAbsent(endpoint, key -> new LatencySamples());
+        earn();
+        final long delayNanos = samples.getPercentile(percentile);
+        final long start = System.nanoTime();
+        final ResponsePromise first = next.get();
+        if (delayNanos < 0 || first.isDone()) {
+            first.addListener(() -> {
+                if (!first.isCancelled()) {
+                    samples.add(System.nanoTime() - start);
+                }
+            }, Runnable::run);
+            return first;
+        }
+
+        final HedgedResponse response = new HedgedResponse();
+        // a first request cancelled because the hedge won took at least until then, which is still worth a sample
+        first.addListener(() -> {
+            if (!response.result.isCancelled()) {
+                samples.add(System.nanoTime() - start);
+            }
+        }, Runnable::run);
+        response.add(first);
+        try {
+            scheduler.schedule(() -> {
+                if (!response.result.isDone() && spend()) {
+                    final ResponsePromise hedge;
+                    try {
+                        hedge = next.get();
+                    } catch (RuntimeException e) {
+                        // e.g. the queue of the concurrency limiter is full, the first request still counts
+                        refund();
+                        return;
+                    }
+                    response.add(hedge);
+                }
+            }, Math.max(minDelayNanos, delayNanos), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // client destroyed, do without the hedge
+        }
+        return ResponsePromises.toResponsePromise(response.result);
+    }
+
+    /**
+     * @return number of GETs sent a second time
+     */
+    public synchronized long getHedgedRequests() {
+        return hedgedRequests;
+    }
+
+    /**
+     * @return number of hedges which could not be sent, e.g. because a later stage rejected them
+     */
+    public synchronized long getFailedHedges() {
+        return failedHedges;
+    }
+
+    private synchronized void earn() {
+        budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+    }
+
+    private synchronized boolean spend() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        hedgedRequests++;
+        return true;
+    }
+
+    private synchronized void refund() {
+        budget = Math.min(MAX_BUDGET, budget + 1);
+        hedgedRequests--;
+        failedHedges++;
+    }
+
+    /**
+     * Completes with the first response of any of the attempts, or with the failure of the last one when all fail.
+     */
+    private static class HedgedResponse {
+        private final SettableFuture<Response> result = SettableFuture.create();
+        private final List<ResponsePromise> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        HedgedResponse() {
+            result.addListener(() -> {
+                for (ResponsePromise attempt : attempts) {
+                    attempt.cancel(true);
+                }
+            }, Runnable::run);
+        }
+
+        void add(final ResponsePromise attempt) {
+            pending.incrementAndGet();
+            attempts.add(attempt);
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+            attempt.addListener(() -> complete(attempt), Runnable::run);
+        }
+
+        private void complete(final ResponsePromise attempt) {
+            final boolean last = pending.decrementAndGet() == 0;
+            try {
+                result.set(attempt.get());
+            } catch (ExecutionException | CancellationException e) {
+                if (last) {
+                    ResponsePromiseSupport.complete(attempt, result);
+                }
+            } catch (InterruptedException e) {
+                // cannot happen, the promise is already done
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of the most recent latencies of an endpoint, with the percentile recomputed every so often.
+     */
+    static class LatencySamples {
+        private static final int RECOMPUTE_EVERY = 32;
+
+        // guarded by this
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private int count;
+        private int position;
+        private int sinceComputed = RECOMPUTE_EVERY;
+        private double computedFor = Double.NaN;
+        private long computed = -1;
+
+        synchronized void add(final long nanos) {
+            samples[position] = nanos;
+            position = (position + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceComputed++;
+        }
+
+        /**
+         * @return latency at given percentile or -1 when there are not enough samples yet
+         */
+        synchronized long getPercentile(final double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            if (sinceComputed >= RECOMPUTE_EVERY || percentile != computedFor) {
+                final long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                computed = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+                computedFor = percentile;
+                sinceComputed = 0;
+            }
+            return computed;
+        }
+    }
+}
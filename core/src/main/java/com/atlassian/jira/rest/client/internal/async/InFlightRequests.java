@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.net.URI;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical GETs share a single round-trip: a caller asking for a resource which is already being
+ * fetched gets the result of the request in flight instead of sending another one. The request is forgotten as soon
+ * as it completes, so no caller ever gets a result older than its call.
+ * <p>
+ * Every caller gets its own promise, which it may cancel without affecting the others; the request itself is
+ * cancelled when all its callers cancelled.
+ *
+ * @since v5.1
+ */
+class InFlightRequests {
+
+    private final ConcurrentMap<ResourceKey, Flight<?>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @param uri    URI of the resource
+     * @param parser parser of the response, only callers reading the resource with equal parsers (see
+     *               {@link ResourceKey}) share a request
+     * @param call   sends the request, called only if no identical request is in flight
+     */
+    @SuppressWarnings("unchecked")
+    <T> Promise<T> join(final URI uri, final Object parser, final Supplier<Promise<T>> call) {
+        final ResourceKey key = new ResourceKey(uri, parser);
+        while (true) {
+            final Flight<T> flight = new Flight<>();
+            // registered before the flight is published, so that callers joining and cancelling meanwhile cannot
+            // cancel the request under its creator
+            final Promise<T> creator = flight.newCaller();
+            final Flight<T> inFlight = (Flight<T>) flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                flight.result.addListener(() -> flights.remove(key, flight), Runnable::run);
+                flight.send(call);
+                return creator;
+            }
+            final Promise<T> caller = inFlight.newCaller();
+            if (caller != null) {
+                return caller;
+            }
+            // all callers of the request in flight cancelled it, do not join
+            flights.remove(key, inFlight);
+        }
+    }
+
+    /**
+     * @return number of distinct requests in flight
+     */
+    int size() {
+        return flights.size();
+    }
+
+    private static class Flight<T> {
+        private final SettableFuture<T> result = SettableFuture.create();
+        // number of callers which have not cancelled yet, -1 once the request got cancelled
+        private final AtomicInteger callers = new AtomicInteger();
+        private volatile Promise<T> request;
+
+        void send(final Supplier<Promise<T>> call) {
+            final Promise<T> request;
+            try {
+                request = call.get();
+            } catch (RuntimeException e) {
+                result.setException(e);
+                return;
+            }
+            this.request = request;
+            request.addListener(() -> {
+                try {
+                    result.set(request.get());
+                } catch (ExecutionException e) {
+                    result.setException(e.getCause());
+                } catch (CancellationException e) {
+                    result.cancel(false);
+                } catch (InterruptedException e) {
+                    // cannot happen, the request is already done
+                    Thread.currentThread().interrupt();
+                }
+            }, Runnable::run);
+            if (callers.get() < 0) {
+                request.cancel(true);
+            }
+        }
+
+        /**
+         * @return promise of a new caller or <code>null</code> if the request got cancelled already
+         */
+        Promise<T> newCaller() {
+            int current;
+            do {
+                current = callers.get();
+                if (current < 0) {
+                    return null;
+                }
+            } while (!callers.compareAndSet(current, current + 1));
+
+            final SettableFuture<T> caller = SettableFuture.create();
+            result.addListener(() -> {
+                try {
+                    caller.set(result.get());
+                } catch (ExecutionException e) {
+                    caller.setException(e.getCause());
+                } catch (CancellationException e) {
+                    caller.cancel(false);
+                } catch (InterruptedException e) {
+                    // cannot happen, the result is already done
+                    Thread.currentThread().interrupt();
+                }
+            }, Runnable::run);
+            caller.addListener(() -> {
+                if (caller.isCancelled() && !result.isDone()) {
+                    leave();
+                }
+            }, Runnable::run);
+            return new DelegatingPromise<>(Promises.forListenableFuture(caller));
+        }
+
+        private void leave() {
+            if (callers.decrementAndGet() == 0 && callers.compareAndSet(0, -1)) {
+                final Promise<T> request = this.request;
+                if (request != null) {
+                    request.cancel(true);
+                }
+                result.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.SearchRestClient;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.jira.rest.client.internal.JqlUtil;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Pages through all issues matching a JQL query using the issue id as a cursor instead of <code>startAt</code>.
+ * <p>
+ * Every page is requested as <code>(jql) AND id &gt; lastSeenId ORDER BY id ASC</code> with <code>startAt=0</code>,
+ * so the cost of a page does not grow with the depth of the crawl, and issues created, updated or deleted
+ * while crawling do not shift the remaining pages. Any ORDER BY clause of the given query is replaced.
+ *
+ * @since v5.1
+ */
+class KeysetSearchResultIterable implements Iterable<Issue> {
+
+    private static final String ORDER_BY_ID = "ORDER BY id ASC";
+
+    private final SearchRestClient searchRestClient;
+    private final String jql;
+    private final int pageSize;
+    private final Set<String> fields;
+
+    KeysetSearchResultIterable(final SearchRestClient searchRestClient, @Nullable final String jql, final int pageSize,
+                               @Nullable final Set<String> fields) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize must be positive");
+        this.searchRestClient = searchRestClient;
+        this.jql = JqlUtil.stripOrderBy(jql);
+        this.pageSize = pageSize;
+        this.fields = fields;
+    }
+
+    @Override
+    public Iterator<Issue> iterator() {
+        return new KeysetIterator();
+    }
+
+    @VisibleForTesting
+    String pageJql(@Nullable final Long lastSeenId) {
+        final String where = lastSeenId != null ? JqlUtil.and(jql, "id > " + lastSeenId)
+                : StringUtils.isBlank(jql) ? "" : "(" + jql + ")";
+        return StringUtils.isBlank(where) ? ORDER_BY_ID : where + " " + ORDER_BY_ID;
+    }
+
+    private class KeysetIterator extends AbstractIterator<Issue> {
+        private Iterator<Issue> current = Collections.emptyIterator();
+        private Long lastSeenId;
+        private boolean lastPage;
+
+        @Override
+        protected Issue computeNext() {
+            while (!current.hasNext()) {
+                if (lastPage) {
+                    return endOfData();
+                }
+                final SearchResult page = searchRestClient.searchJql(pageJql(lastSeenId), pageSize, 0, fields).claim();
+                final int size = Iterables.size(page.getIssues());
+                // JIRA may cap maxResults below what we asked for, a short page is only the last one if it is short
+                // in respect to the page size the server actually used
+                lastPage = size == 0 || size < Math.min(pageSize, page.getMaxResults());
+                if (size > 0) {
+                    lastSeenId = Iterables.getLast(page.getIssues()).getId();
+                }
+                current = page.getIssues().iterator();
+            }
+            return current.next();
+        }
+    }
+}
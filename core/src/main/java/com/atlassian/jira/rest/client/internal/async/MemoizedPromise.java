@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Fetches a value once and hands it to all callers, without blocking or locking. A fetch which fails or gets
+ * cancelled is forgotten, so that the next caller fetches again, as is an invalidated value.
+ * <p>
+ * Every caller gets its own promise, which it may cancel without affecting the fetch the others wait for.
+ *
+ * @since v5.1
+ */
+final class MemoizedPromise<T> {
+
+    private final Supplier<Promise<T>> fetch;
+    private final AtomicReference<SettableFuture<T>> current = new AtomicReference<>();
+
+    MemoizedPromise(final Supplier<Promise<T>> fetch) {
+        this.fetch = fetch;
+    }
+
+    Promise<T> get() {
+        while (true) {
+            final SettableFuture<T> memoized = current.get();
+            if (memoized != null) {
+                return new Caller<>(memoized);
+            }
+            final SettableFuture<T> fetched = SettableFuture.create();
+            if (current.compareAndSet(null, fetched)) {
+                try {
+                    fetch.get().then(new FutureCallback<T>() {
+                        @Override
+                        public void onSuccess(final T result) {
+                            fetched.set(result);
+                        }
+
+                        @Override
+                        public void onFailure(final Throwable t) {
+                            current.compareAndSet(fetched, null);
+                            fetched.setException(t);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    current.compareAndSet(fetched, null);
+                    fetched.setException(e);
+                }
+                return new Caller<>(fetched);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the value only if it is still the one handed out as <code>expected</code>, so that a caller
+     * reacting late to a stale value does not throw away the one fetched meanwhile.
+     *
+     * @param expected promise returned by {@link #get()}
+     */
+    void invalidate(final Promise<T> expected) {
+        if (expected instanceof Caller) {
+            current.compareAndSet(((Caller<T>) expected).fetched, null);
+        }
+    }
+
+    /**
+     * Promise of a single caller, completed with the shared fetch.
+     */
+    private static class Caller<T> extends DelegatingPromise<T> {
+        private final SettableFuture<T> fetched;
+
+        Caller(final SettableFuture<T> fetched) {
+            this(fetched, SettableFuture.<T>create());
+        }
+
+        private Caller(final SettableFuture<T> fetched, final SettableFuture<T> caller) {
+            super(Promises.forListenableFuture(caller));
+            this.fetched = fetched;
+            fetched.addListener(() -> {
+                try {
+                    caller.set(fetched.get());
+                } catch (ExecutionException e) {
+                    caller.setException(e.getCause());
+                } catch (CancellationException e) {
+                    caller.cancel(false);
+                } catch (InterruptedException e) {
+                    // cannot happen, the fetch is already done
+                    Thread.currentThread().interrupt();
+                }
+            }, Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable list of metadata entities (issue types, statuses, fields, ...) with lookups by id, name and self URI.
+ * Names are matched regardless of case; when several entities share a name, as custom fields may, the first one
+ * listed by JIRA is returned.
+ *
+ * @param <K> type of the entity ids
+ * @param <T> type of the entities
+ * @since v5.1
+ */
+public class MetadataIndex<K, T> {
+
+    private final ImmutableList<T> values;
+    private final Map<K, T> byId = new HashMap<>();
+    private final Map<String, T> byName = new HashMap<>();
+    private final Map<URI, T> bySelf = new HashMap<>();
+
+    MetadataIndex(final Iterable<T> values, final Function<? super T, K> id, final Function<? super T, String> name,
+                  @Nullable final Function<? super T, URI> self) {
+        this.values = ImmutableList.copyOf(values);
+        for (T value : this.values) {
+            putIfAbsent(byId, id.apply(value), value);
+            final String valueName = name.apply(value);
+            putIfAbsent(byName, valueName != null ? normalize(valueName) : null, value);
+            if (self != null) {
+                putIfAbsent(bySelf, self.apply(value), value);
+            }
+        }
+    }
+
+    public Iterable<T> values() {
+        return values;
+    }
+
+    @Nullable
+    public T byId(final K id) {
+        return byId.get(id);
+    }
+
+    @Nullable
+    public T byName(final String name) {
+        return byName.get(normalize(name));
+    }
+
+    /**
+     * @return entity with given self URI, <code>null</code> also for entities which have none (fields)
+     */
+    @Nullable
+    public T bySelf(final URI self) {
+        return bySelf.get(self);
+    }
+
+    private static <A, T> void putIfAbsent(final Map<A, T> map, @Nullable final A key, final T value) {
+        if (key != null) {
+            map.putIfAbsent(key, value);
+        }
+    }
+
+    private static String normalize(final String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
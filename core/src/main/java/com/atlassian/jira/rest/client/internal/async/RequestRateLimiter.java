@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.SettableFuture;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spaces requests out with token buckets: one for all requests of a client and optionally one per endpoint group
+ * (the first resource segment of the path, e.g. <code>search</code> or <code>issue</code>). A request which finds
+ * a bucket empty is delayed until the bucket refills instead of being sent, so bursts are smoothed to the
+ * configured rate rather than tripping the rate limiting of JIRA.
+ * <p>
+ * When JIRA answers with 429 anyway, all requests are held back for the time given by its <code>Retry-After</code>
+ * header (one second when it is missing) and the rejected request is sent again, up to a few times before the 429
+ * is handed to the caller. JIRA did not process a request it rejected with 429, so it is sent again whatever its
+ * method, but only with a fresh copy of its body: a request whose body cannot be sent again (see
+ * {@link Next#isRepeatable()}) gets the 429 at once.
+ * <p>
+ * A delayed request which is cancelled before it is sent gives its tokens back to later requests.
+ *
+ * @since v5.1
+ */
+public class RequestRateLimiter implements RequestStage {
+
+    public static final int DEFAULT_MAX_DEFERRALS = 3;
+
+    static final int TOO_MANY_REQUESTS = 429;
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+    private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormat
+            .forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'").withZoneUTC().withLocale(Locale.US);
+
+    private final TokenBucket clientBucket;
+    private final Map<String, TokenBucket> endpointBuckets;
+    private final int maxDeferrals;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private long pausedUntilNanos = System.nanoTime();
+    private long deferredRequests;
+
+    /**
+     * Creates a limiter sending delayed requests on the scheduler of the client they belong to.
+     *
+     * @param requestsPerSecond sustained rate of all requests of the client
+     * @param burst             number of requests which may be sent at once after a quiet period
+     */
+    public RequestRateLimiter(final double requestsPerSecond, final int burst) {
+        this(requestsPerSecond, burst, ImmutableMap.<String, Double>of(), DEFAULT_MAX_DEFERRALS, null);
+    }
+
+    /**
+     * @param requestsPerSecond         sustained rate of all requests of the client
+     * @param burst                     number of requests which may be sent at once after a quiet period, per bucket
+     * @param endpointRequestsPerSecond sustained rates of endpoint groups with stricter limits, e.g.
+     *                                  <code>search</code>
+     * @param maxDeferrals              how many times a request answered with 429 is sent again
+     * @param scheduler                 executor sending delayed requests, owned by the caller; <code>null</code> to
+     *                                  use the scheduler of the client sending the request, which is shut down
+     *                                  together with that client
+     */
+    public RequestRateLimiter(final double requestsPerSecond, final int burst,
+                              final Map<String, Double> endpointRequestsPerSecond, final int maxDeferrals,
+                              @Nullable final ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(burst > 0, "burst must be positive");
+        Preconditions.checkArgument(maxDeferrals >= 0, "maxDeferrals cannot be negative");
+        this.clientBucket = new TokenBucket(requestsPerSecond, burst);
+        final ImmutableMap.Builder<String, TokenBucket> buckets = ImmutableMap.builder();
+        for (Map.Entry<String, Double> entry : endpointRequestsPerSecond.entrySet()) {
+            buckets.put(entry.getKey(), new TokenBucket(entry.getValue(), burst));
+        }
+        this.endpointBuckets = buckets.build();
+        this.maxDeferrals = maxDeferrals;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request, final Next next,
+                                   final ScheduledExecutorService scheduler) {
+        return execute(Endpoints.group(request.getUri()), next, this.scheduler != null ? this.scheduler : scheduler);
+    }
+
+    ResponsePromise execute(final String endpoint, final Next next,
+                            final ScheduledExecutorService scheduler) {
+        final SettableFuture<Response> response = SettableFuture.create();
+        final AtomicReference<ResponsePromise> sent = new AtomicReference<>();
+        response.addListener(() -> {
+            final ResponsePromise current = sent.get();
+            if (response.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        }, Runnable::run);
+        schedule(endpoint, next, response, sent, scheduler, 0);
+        return ResponsePromises.toResponsePromise(response);
+    }
+
+    /**
+     * @return number of times requests were held back for a 429 answer
+     */
+    public synchronized long getDeferredRequests() {
+        return deferredRequests;
+    }
+
+    private void schedule(final String endpoint, final Next next, final SettableFuture<Response> response,
+                          final AtomicReference<ResponsePromise> sent, final ScheduledExecutorService scheduler,
+                          final int deferrals) {
+        final long delayNanos = reserve(endpoint);
+        final Runnable send = () -> send(endpoint, next, response, sent, scheduler, deferrals);
+        if (delayNanos <= 0) {
+            send.run();
+            return;
+        }
+        final ScheduledFuture<?> scheduled;
+        try {
+            scheduled = scheduler.schedule(send, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // client destroyed
+            refund(endpoint);
+            response.setException(e);
+            return;
+        }
+        response.addListener(() -> {
+            // once send has started it gives the tokens back itself if it finds the request cancelled
+            if (response.isCancelled() && scheduled.cancel(false)) {
+                refund(endpoint);
+            }
+        }, Runnable::run);
+    }
+
+    private void send(final String endpoint, final Next next, final SettableFuture<Response> response,
+                      final AtomicReference<ResponsePromise> sent, final ScheduledExecutorService scheduler,
+                      final int deferrals) {
+        if (response.isDone()) {
+            // cancelled while waiting for its tokens
+            refund(endpoint);
+            return;
+        }
+        final ResponsePromise responsePromise;
+        try {
+            responsePromise = next.get();
+        } catch (RuntimeException e) {
+            response.setException(e);
+            return;
+        }
+        sent.set(responsePromise);
+        if (response.isCancelled()) {
+            responsePromise.cancel(true);
+            return;
+        }
+        responsePromise.addListener(() -> {
+            final Response tooManyRequests = getTooManyRequests(responsePromise);
+            if (tooManyRequests != null && deferrals < maxDeferrals && next.isRepeatable() && !response.isDone()) {
+                pause(getRetryAfterMillis(tooManyRequests));
+                schedule(endpoint, next, response, sent, scheduler, deferrals + 1);
+            } else {
+                ResponsePromiseSupport.complete(responsePromise, response);
+            }
+        }, Runnable::run);
+    }
+
+    @Nullable
+    private static Response getTooManyRequests(final ResponsePromise responsePromise) {
+        try {
+            final Response response = responsePromise.get();
+            return response != null && response.getStatusCode() == TOO_MANY_REQUESTS ? response : null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            // cannot happen, the promise is already done
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return value of the <code>Retry-After</code> header, given either in seconds or as an HTTP date
+     */
+    static long getRetryAfterMillis(final Response response) {
+        final String retryAfter = response.getHeader(RETRY_AFTER_HEADER);
+        if (retryAfter == null) {
+            return DEFAULT_RETRY_AFTER_MILLIS;
+        }
+        final String value = retryAfter.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try the date form
+        }
+        try {
+            return Math.max(0, HTTP_DATE_FORMATTER.parseMillis(value) - System.currentTimeMillis());
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_RETRY_AFTER_MILLIS;
+        }
+    }
+
+    private synchronized void pause(final long millis) {
+        deferredRequests++;
+        final long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (until - pausedUntilNanos > 0) {
+            pausedUntilNanos = until;
+        }
+    }
+
+    /**
+     * Takes a token from the client bucket and from the bucket of the endpoint group.
+     *
+     * @return how long the request has to wait for the tokens and for the end of a pause, in nanoseconds
+     */
+    private long reserve(final String endpoint) {
+        final long now = System.nanoTime();
+        long delay = clientBucket.reserve(now);
+        final TokenBucket endpointBucket = endpointBuckets.get(endpoint);
+        if (endpointBucket != null) {
+            delay = Math.max(delay, endpointBucket.reserve(now));
+        }
+        synchronized (this) {
+            return Math.max(delay, pausedUntilNanos - now);
+        }
+    }
+
+    /**
+     * Gives the tokens of a request which was not sent back to the client bucket and to the bucket of the endpoint
+     * group.
+     */
+    private void refund(final String endpoint) {
+        clientBucket.refund();
+        final TokenBucket endpointBucket = endpointBuckets.get(endpoint);
+        if (endpointBucket != null) {
+            endpointBucket.refund();
+        }
+    }
+
+    /**
+     * Bucket which lets the balance go negative: a request taking the token of a later time slot waits until then,
+     * so waiting requests are sent in order at the bucket's rate.
+     */
+    static class TokenBucket {
+        private final double tokensPerNano;
+        private final int capacity;
+
+        // guarded by this
+        private double tokens;
+        private long updatedNanos;
+
+        TokenBucket(final double tokensPerSecond, final int capacity) {
+            Preconditions.checkArgument(tokensPerSecond > 0, "requestsPerSecond must be positive");
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.updatedNanos = System.nanoTime();
+        }
+
+        /**
+         * @return time until the taken token becomes available, in nanoseconds
+         */
+        synchronized long reserve(final long now) {
+            if (now - updatedNanos > 0) {
+                tokens = Math.min(capacity, tokens + (now - updatedNanos) * tokensPerNano);
+                updatedNanos = now;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+
+        /**
+         * Returns a token taken by {@link #reserve(long)}, so that the requests reserving after it wait less.
+         */
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
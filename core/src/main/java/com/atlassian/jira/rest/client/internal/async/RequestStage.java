@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.ResponsePromise;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Step every request of an {@link AtlassianHttpClientDecorator} passes through on its way to the transport, e.g.
+ * to limit, delay, reject or repeat it. A stage may call <code>next</code> later than when it is invoked, or not at
+ * all, and more than once only when {@link Next#isRepeatable()}.
+ * <p>
+ * A stage is usually shared by all clients of a factory, so it must not hold on to the scheduler it gets: the
+ * scheduler belongs to the client sending the request and is shut down when that client is destroyed.
+ *
+ * @since v5.1
+ */
+public interface RequestStage {
+
+    /**
+     * @param request   already authenticated request; its body is sent by <code>next</code> and must not be read
+     * @param next      sends the request through the remaining stages and the transport
+     * @param scheduler executor of the client sending the request, for stages which call <code>next</code> later;
+     *                  tasks scheduled after the client was destroyed are rejected
+     * @return promise of the response handed to the caller
+     */
+    ResponsePromise execute(Request request, Next next, ScheduledExecutorService scheduler);
+
+    /**
+     * Sends a request through the remaining stages and the transport, with a fresh copy of its body every time.
+     */
+    interface Next extends Supplier<ResponsePromise> {
+
+        /**
+         * @return whether the request may be sent more than once, which is not the case when its body is a stream
+         * which can be read only once
+         */
+        default boolean isRepeatable() {
+            return true;
+        }
+    }
+}
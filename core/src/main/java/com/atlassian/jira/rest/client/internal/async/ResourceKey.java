@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.base.Objects;
+
+import java.net.URI;
+
+/**
+ * A resource read by a given parser, e.g. an issue URI read by the issue parser. Parsers are told apart by
+ * {@link Object#equals(Object)}: most parsers keep it identity, as parsers of one class may still produce different
+ * results, e.g. generic array parsers of different elements, while parsers created per call, e.g. search result
+ * parsers of a projection, compare their settings.
+ *
+ * @since v5.1
+ */
+final class ResourceKey {
+
+    private final URI uri;
+    private final Object parser;
+
+    ResourceKey(final URI uri, final Object parser) {
+        this.uri = uri;
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof ResourceKey)) {
+            return false;
+        }
+        final ResourceKey that = (ResourceKey) obj;
+        return uri.equals(that.uri) && parser.equals(that.parser);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(uri, parser);
+    }
+
+    @Override
+    public String toString() {
+        return uri + " read by " + parser.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps parsed GET responses together with their validators (<code>ETag</code>, <code>Last-Modified</code>), so
+ * that reading a resource again costs a conditional request and, while the resource is unchanged, a
+ * <code>304 Not Modified</code> answer instead of a full payload to transfer and parse. Every read is revalidated,
+ * so the cache never serves a value JIRA would not serve at the same time.
+ * <p>
+ * The cache holds up to the given number of entries, evicting the least recently used ones first. Its entries are
+ * read with the credentials of the client they were fetched by, so a cache must not be shared by clients
+ * authenticated as different users.
+ *
+ * @since v5.1
+ */
+public class ResponseCache {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    private final Cache<ResourceKey, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    public ResponseCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize maximum number of responses kept
+     */
+    public ResponseCache(final long maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be positive");
+        this.entries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * @return number of reads answered with <code>304 Not Modified</code> and served from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of reads of resources which were not cached
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of conditional requests sent for cached resources, whether they turned out unchanged or not
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return number of cached responses
+     */
+    public long size() {
+        return entries.size();
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * @return cached entry to revalidate, <code>null</code> if the resource is not cached
+     */
+    @Nullable
+    Entry get(final URI uri, final Object parser) {
+        final Entry entry = entries.getIfPresent(new ResourceKey(uri, parser));
+        (entry != null ? revalidations : misses).incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Caches given value parsed from given full response, if the response carries any validator.
+     */
+    void put(final URI uri, final Object parser, final Response response, final Object value) {
+        final ResourceKey key = new ResourceKey(uri, parser);
+        final String etag = response.getHeader(ETAG);
+        final String lastModified = response.getHeader(LAST_MODIFIED);
+        if (etag != null || lastModified != null) {
+            entries.put(key, new Entry(value, etag, lastModified));
+        } else {
+            entries.invalidate(key);
+        }
+    }
+
+    /**
+     * @return value of given entry which JIRA confirmed to be unchanged
+     */
+    Object notModified(final Entry entry) {
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    static class Entry {
+        private final Object value;
+        @Nullable
+        private final String etag;
+        @Nullable
+        private final String lastModified;
+
+        Entry(final Object value, @Nullable final String etag, @Nullable final String lastModified) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        void addValidators(final Request.Builder request) {
+            if (etag != null) {
+                request.setHeader("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                request.setHeader("If-Modified-Since", lastModified);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the completion of responses from the I/O threads of the HTTP client to an executor, so that everything
+ * chained to a response (JSON decoding above all) runs there and the I/O threads only move bytes. Large responses,
+ * like search pages, then no longer delay the delivery of other in-flight responses.
+ * <p>
+ * Keeps simple metrics of the work it runs: the number of responses waiting for a thread, and the number and
+ * duration of completed ones. When the executor rejects a response, it is processed by the calling I/O thread.
+ *
+ * @since v5.1
+ */
+public class ResponseParsingExecutor {
+
+    private final Executor executor;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong processedResponses = new AtomicLong();
+    private final AtomicLong totalProcessingNanos = new AtomicLong();
+    private final AtomicLong maxProcessingNanos = new AtomicLong();
+
+    /**
+     * @param executor executor to parse responses on, e.g. a {@link java.util.concurrent.ForkJoinPool}
+     */
+    public ResponseParsingExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return promise completed on the executor once given promise completes
+     */
+    ResponsePromise offload(final ResponsePromise responsePromise) {
+        final SettableFuture<Response> offloaded = SettableFuture.create();
+        responsePromise.addListener(() -> dispatch(responsePromise, offloaded), Runnable::run);
+        offloaded.addListener(() -> {
+            if (offloaded.isCancelled()) {
+                responsePromise.cancel(true);
+            }
+        }, Runnable::run);
+        return ResponsePromises.toResponsePromise(offloaded);
+    }
+
+    /**
+     * @return number of received responses waiting for a thread of the executor
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return number of responses processed on the executor so far
+     */
+    public long getProcessedResponses() {
+        return processedResponses.get();
+    }
+
+    /**
+     * @return total time spent processing (parsing) responses on the executor, in nanoseconds
+     */
+    public long getTotalProcessingTimeNanos() {
+        return totalProcessingNanos.get();
+    }
+
+    /**
+     * @return longest time spent processing a single response, in nanoseconds
+     */
+    public long getMaxProcessingTimeNanos() {
+        return maxProcessingNanos.get();
+    }
+
+    /**
+     * @return the executor when it is a fork/join pool which can also decode chunks of a response in parallel
+     */
+    @Nullable
+    ForkJoinPool getForkJoinPool() {
+        return executor instanceof ForkJoinPool ? (ForkJoinPool) executor : null;
+    }
+
+    private void dispatch(final ResponsePromise responsePromise, final SettableFuture<Response> offloaded) {
+        queueDepth.incrementAndGet();
+        final Runnable task = () -> {
+            queueDepth.decrementAndGet();
+            final long start = System.nanoTime();
+            try {
+                ResponsePromiseSupport.complete(responsePromise, offloaded);
+            } finally {
+                record(System.nanoTime() - start);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void record(final long nanos) {
+        processedResponses.incrementAndGet();
+        totalProcessingNanos.addAndGet(nanos);
+        long max = maxProcessingNanos.get();
+        while (nanos > max && !maxProcessingNanos.compareAndSet(max, nanos)) {
+            max = maxProcessingNanos.get();
+        }
+    }
+}
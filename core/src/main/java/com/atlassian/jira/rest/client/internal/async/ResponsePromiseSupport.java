@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for request stages which hand out their own promise and complete it later from another one.
+ *
+ * @since v5.1
+ */
+final class ResponsePromiseSupport {
+
+    private ResponsePromiseSupport() {
+    }
+
+    static ResponsePromise failed(final Throwable failure) {
+        return ResponsePromises.toResponsePromise(Futures.<Response>immediateFailedFuture(failure));
+    }
+
+    /**
+     * Completes <code>target</code> with the outcome of <code>source</code> and cancels <code>source</code> when
+     * <code>target</code> gets cancelled.
+     */
+    static void propagate(final ResponsePromise source, final SettableFuture<Response> target) {
+        source.addListener(() -> complete(source, target), Runnable::run);
+        target.addListener(() -> {
+            if (target.isCancelled()) {
+                source.cancel(true);
+            }
+        }, Runnable::run);
+    }
+
+    /**
+     * Completes <code>target</code> with the outcome of the already completed <code>source</code>.
+     */
+    static void complete(final ResponsePromise source, final SettableFuture<Response> target) {
+        try {
+            target.set(source.get());
+        } catch (ExecutionException e) {
+            target.setException(e.getCause());
+        } catch (CancellationException e) {
+            target.cancel(false);
+        } catch (InterruptedException e) {
+            // cannot happen, the promise is already done
+            Thread.currentThread().interrupt();
+            target.setException(e);
+        }
+    }
+}
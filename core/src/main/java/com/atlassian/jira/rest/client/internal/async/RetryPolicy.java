@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests again after transient failures: I/O errors such as a reset connection or a timeout, and the
+ * 502, 503 and 504 answers of proxies and nodes going down. Attempts are spaced out by exponential backoff with
+ * full jitter, i.e. a random delay up to <code>baseDelay * 2^retry</code>, capped by the maximum delay.
+ * <p>
+ * Only idempotent methods (GET, HEAD, OPTIONS, TRACE, PUT, DELETE) are retried, unless POST retries are enabled
+ * explicitly, and only requests whose body can be sent again (see {@link Next#isRepeatable()}). A retry budget
+ * keeps retries from multiplying the load on a server which is failing for good: every request earns a fraction of
+ * a retry, every retry spends a whole one, and no retry is made once the budget is spent.
+ *
+ * @since v5.1
+ */
+public class RetryPolicy implements RequestStage {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    public static final double DEFAULT_BUDGET_RATIO = 0.2;
+    public static final int DEFAULT_MIN_BUDGET = 10;
+
+    private static final Set<Request.Method> IDEMPOTENT_METHODS = Sets.immutableEnumSet(Request.Method.GET,
+            Request.Method.HEAD, Request.Method.OPTIONS, Request.Method.PUT, Request.Method.DELETE, Request.Method.TRACE);
+
+    private final int maxRetries;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final boolean retryPost;
+    private final double budgetRatio;
+    private final int maxBudget;
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private double budget;
+    private long retries;
+    private long exhaustedBudget;
+
+    /**
+     * Creates a policy with the default limits, sending retries on the scheduler of the client they belong to.
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS, false,
+                DEFAULT_BUDGET_RATIO, DEFAULT_MIN_BUDGET, null);
+    }
+
+    /**
+     * @param maxRetries  maximum number of times a single request is sent again
+     * @param baseDelay   upper bound of the delay before the first retry, doubled for every further one
+     * @param maxDelay    upper bound of any delay
+     * @param unit        time unit of the delays
+     * @param retryPost   whether POST requests may be sent again too; JIRA may then e.g. create an issue twice
+     *                    when the first response got lost on its way back
+     * @param budgetRatio fraction of a retry every request earns
+     * @param minBudget   number of retries available from the start, also the most the budget can save up (but at
+     *                    least one)
+     * @param scheduler   executor sending the retries, owned by the caller; <code>null</code> to use the scheduler
+     *                    of the client sending the request, which is shut down together with that client
+     */
+    public RetryPolicy(final int maxRetries, final long baseDelay, final long maxDelay, final TimeUnit unit,
+                       final boolean retryPost, final double budgetRatio, final int minBudget,
+                       @Nullable final ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(maxRetries >= 0, "maxRetries cannot be negative");
+        Preconditions.checkArgument(baseDelay > 0 && baseDelay <= maxDelay, "baseDelay must be between 0 and maxDelay");
+        Preconditions.checkArgument(budgetRatio >= 0, "budgetRatio cannot be negative");
+        Preconditions.checkArgument(minBudget >= 0, "minBudget cannot be negative");
+        this.maxRetries = maxRetries;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.retryPost = retryPost;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = Math.max(1, minBudget);
+        this.budget = minBudget;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request, final Next next,
+                                   final ScheduledExecutorService scheduler) {
+        return execute(request.getMethod(), next, this.scheduler != null ? this.scheduler : scheduler);
+    }
+
+    ResponsePromise execute(final Request.Method method, final Next next, final ScheduledExecutorService scheduler) {
+        if (!next.isRepeatable() || !IDEMPOTENT_METHODS.contains(method) && !(retryPost && method == Request.Method.POST)) {
+            return next.get();
+        }
+        earn();
+        final SettableFuture<Response> response = SettableFuture.create();
+        final AtomicReference<ResponsePromise> sent = new AtomicReference<>();
+        response.addListener(() -> {
+            final ResponsePromise current = sent.get();
+            if (response.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        }, Runnable::run);
+        send(next, response, sent, scheduler, 0);
+        return ResponsePromises.toResponsePromise(response);
+    }
+
+    /**
+     * @return number of retries made so far
+     */
+    public synchronized long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return number of failures handed to the caller without a retry because the budget was spent
+     */
+    public synchronized long getExhaustedBudget() {
+        return exhaustedBudget;
+    }
+
+    private void send(final Supplier<ResponsePromise> next, final SettableFuture<Response> response,
+                      final AtomicReference<ResponsePromise> sent, final ScheduledExecutorService scheduler,
+                      final int attempt) {
+        if (response.isDone()) {
+            return;
+        }
+        final ResponsePromise responsePromise;
+        try {
+            responsePromise = next.get();
+        } catch (RuntimeException e) {
+            response.setException(e);
+            return;
+        }
+        sent.set(responsePromise);
+        if (response.isCancelled()) {
+            responsePromise.cancel(true);
+            return;
+        }
+        responsePromise.addListener(() -> {
+            if (attempt < maxRetries && !response.isDone() && isTransientFailure(responsePromise) && spend()) {
+                final long delayNanos = ThreadLocalRandom.current().nextLong(backoffNanos(attempt) + 1);
+                try {
+                    scheduler.schedule(() -> send(next, response, sent, scheduler, attempt + 1), delayNanos,
+                            TimeUnit.NANOSECONDS);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // client destroyed, hand over the failure
+                }
+            }
+            ResponsePromiseSupport.complete(responsePromise, response);
+        }, Runnable::run);
+    }
+
+    long backoffNanos(final int attempt) {
+        return attempt >= 62 || baseDelayNanos > maxDelayNanos >> attempt ? maxDelayNanos : baseDelayNanos << attempt;
+    }
+
+    static boolean isTransientFailure(final ResponsePromise responsePromise) {
+        try {
+            final Response response = responsePromise.get();
+            if (response == null) {
+                return false;
+            }
+            final int statusCode = response.getStatusCode();
+            return statusCode == 502 || statusCode == 503 || statusCode == 504;
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException || cause instanceof TimeoutException) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (CancellationException e) {
+            return false;
+        } catch (InterruptedException e) {
+            // cannot happen, the promise is already done
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized void earn() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean spend() {
+        if (budget < 1) {
+            exhaustedBudget++;
+            return false;
+        }
+        budget -= 1;
+        retries++;
+        return true;
+    }
+}
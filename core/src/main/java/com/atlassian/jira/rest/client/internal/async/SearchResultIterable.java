@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.SearchRestClient;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.util.concurrent.Promise;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Lazily pages through all issues matching a JQL query.
+ * <p>
+ * Nothing is requested until the iterator is first used. Once the first page tells us how many issues
+ * match, up to <code>prefetchPages</code> following pages are kept in flight while the current page
+ * is being consumed, so at most <code>prefetchPages + 1</code> pages are held in memory at any time.
+ * Pages are handed back either in the order they were requested or, when <code>completionOrder</code> is set,
+ * in the order their responses arrive. Each call to {@link #iterator()} starts a new crawl.
+ *
+ * @since v5.1
+ */
+class SearchResultIterable implements Iterable<Issue> {
+
+    private final SearchRestClient searchRestClient;
+    private final String jql;
+    private final int pageSize;
+    private final int prefetchPages;
+    private final Set<String> fields;
+    private final boolean completionOrder;
+
+    SearchResultIterable(final SearchRestClient searchRestClient, @Nullable final String jql, final int pageSize,
+                         final int prefetchPages, @Nullable final Set<String> fields) {
+        this(searchRestClient, jql, pageSize, prefetchPages, fields, false);
+    }
+
+    SearchResultIterable(final SearchRestClient searchRestClient, @Nullable final String jql, final int pageSize,
+                         final int prefetchPages, @Nullable final Set<String> fields, final boolean completionOrder) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize must be positive");
+        Preconditions.checkArgument(prefetchPages >= 0, "prefetchPages cannot be negative");
+        this.searchRestClient = searchRestClient;
+        this.jql = jql;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.fields = fields;
+        this.completionOrder = completionOrder;
+    }
+
+    @Override
+    public Iterator<Issue> iterator() {
+        return new PrefetchingIterator();
+    }
+
+    private class PrefetchingIterator extends AbstractIterator<Issue> {
+        private final Deque<Promise<SearchResult>> pages = new ArrayDeque<>();
+        private final BlockingQueue<Promise<SearchResult>> completed = new LinkedBlockingQueue<>();
+        private Iterator<Issue> current = Collections.emptyIterator();
+        private int nextStartAt = 0;
+        private int effectivePageSize = pageSize;
+        private int total = -1;
+
+        @Override
+        protected Issue computeNext() {
+            while (!current.hasNext()) {
+                if (pages.isEmpty() && !requestPages(1)) {
+                    return endOfData();
+                }
+                final SearchResult page;
+                try {
+                    page = nextPage().claim();
+                } catch (RuntimeException e) {
+                    // the crawl ends here, do not leave the pages prefetched behind the failed one in flight
+                    cancelPending();
+                    throw e;
+                }
+                if (total < 0 && page.getMaxResults() > 0) {
+                    // JIRA may cap maxResults below what we asked for, follow the server's page size
+                    effectivePageSize = page.getMaxResults();
+                    nextStartAt = page.getStartIndex() + effectivePageSize;
+                }
+                total = page.getTotal();
+                current = page.getIssues().iterator();
+                if (!current.hasNext() && !completionOrder) {
+                    // result set shrank while crawling, nothing more to fetch
+                    cancelPending();
+                    return endOfData();
+                }
+                requestPages(prefetchPages);
+            }
+            return current.next();
+        }
+
+        private Promise<SearchResult> nextPage() {
+            if (!completionOrder) {
+                return pages.poll();
+            }
+            try {
+                final Promise<SearchResult> page = completed.take();
+                pages.remove(page);
+                return page;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelPending();
+                throw new RestClientException(e);
+            }
+        }
+
+        private boolean requestPages(final int inFlightLimit) {
+            boolean requested = false;
+            // until the first page arrives we don't know how many pages there are, so only one request is sent
+            while (pages.size() < inFlightLimit && (total < 0 ? pages.isEmpty() : nextStartAt < total)) {
+                final Promise<SearchResult> page = searchRestClient.searchJql(jql, pageSize, nextStartAt, fields);
+                pages.add(page);
+                if (completionOrder) {
+                    page.addListener(() -> completed.add(page), Runnable::run);
+                }
+                nextStartAt += effectivePageSize;
+                requested = true;
+            }
+            return requested;
+        }
+
+        private void cancelPending() {
+            for (Promise<SearchResult> page : pages) {
+                page.cancel(true);
+            }
+            pages.clear();
+            completed.clear();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out one canonical instance of every reference entity (status, issue type, project, priority, resolution,
+ * user, ...) per self URI, so that issues parsed from the same response (or by the same client) share them instead
+ * of each holding its own copy. The entities are immutable, so sharing them is safe; the interner itself may be
+ * used from several threads.
+ * <p>
+ * A response scoped interner lives only as long as the issues it produced. A client scoped one is bounded and its
+ * entries expire, as a renamed status or an updated user is served from it until then.
+ *
+ * @since v5.1
+ */
+public class EntityInterner {
+
+    private final Cache<Key, Object> entities;
+
+    private EntityInterner(final Cache<Key, Object> entities) {
+        this.entities = entities;
+    }
+
+    /**
+     * @return interner for issues of a single response
+     */
+    public static EntityInterner forResponse() {
+        return new EntityInterner(CacheBuilder.newBuilder().<Key, Object>build());
+    }
+
+    /**
+     * @param maximumSize      maximum number of entities kept
+     * @param expireAfterWrite how long an entity is served before it is parsed again
+     * @param unit             time unit of the expiration
+     * @return interner shared by all responses of a client
+     */
+    public static EntityInterner shared(final long maximumSize, final long expireAfterWrite, final TimeUnit unit) {
+        return new EntityInterner(CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite, unit)
+                .<Key, Object>build());
+    }
+
+    /**
+     * @return parser which returns the canonical instance for every self URI, parsing only its first occurrence
+     */
+    public <T> JsonObjectParser<T> interning(final Class<T> type, final JsonObjectParser<T> parser) {
+        return new JsonObjectParser<T>() {
+            @Override
+            public T parse(final JSONObject json) throws JSONException {
+                return intern(type, json, parser);
+            }
+        };
+    }
+
+    <T> T intern(final Class<T> type, final JSONObject json, final JsonObjectParser<T> parser) throws JSONException {
+        final String self = json.optString(JsonParseUtil.SELF_ATTR, null);
+        if (self == null) {
+            return parser.parse(json);
+        }
+        final Key key = new Key(type, self);
+        final Object cached = entities.getIfPresent(key);
+        if (cached != null) {
+            return type.cast(cached);
+        }
+        final T parsed = parser.parse(json);
+        final Object previous = entities.asMap().putIfAbsent(key, parsed);
+        return previous != null ? type.cast(previous) : parsed;
+    }
+
+    public long size() {
+        return entities.size();
+    }
+
+    private static final class Key {
+        private final Class<?> type;
+        private final String self;
+
+        private Key(final Class<?> type, final String self) {
+            this.type = type;
+            this.self = self;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof Key) {
+                final Key that = (Key) obj;
+                return type == that.type && self.equals(that.self);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + self.hashCode();
+        }
+    }
+}
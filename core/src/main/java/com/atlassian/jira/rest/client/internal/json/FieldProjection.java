@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Issue fields requested with the <code>fields</code> parameter of a search. When only some fields are requested,
+ * {@link IssueJsonParser} decodes just those and no longer insists on the fields it otherwise requires
+ * (summary, issuetype, created, updated, project and status). Projections of the same fields are equal.
+ *
+ * @since v5.1
+ */
+public class FieldProjection {
+
+    private static final String ALL_FIELDS = "*all";
+    private static final String NAVIGABLE_FIELDS = "*navigable";
+    private static final String EXCLUDE_PREFIX = "-";
+
+    public static final FieldProjection ALL = new FieldProjection(null, ImmutableSet.<String>of());
+
+    // null when all fields but the excluded ones were requested
+    @Nullable
+    private final ImmutableSet<String> included;
+    private final ImmutableSet<String> excluded;
+
+    private FieldProjection(@Nullable final ImmutableSet<String> included, final ImmutableSet<String> excluded) {
+        this.included = included;
+        this.excluded = excluded;
+    }
+
+    /**
+     * @param requestedFields value of the <code>fields</code> parameter, <code>null</code> for the server default
+     * @return projection matching given fields; {@link #ALL} unless some fields are left out
+     */
+    public static FieldProjection of(@Nullable final Set<String> requestedFields) {
+        if (requestedFields == null) {
+            return ALL;
+        }
+        final ImmutableSet.Builder<String> included = ImmutableSet.builder();
+        final ImmutableSet.Builder<String> excluded = ImmutableSet.builder();
+        boolean wildcard = false;
+        for (String field : requestedFields) {
+            if (ALL_FIELDS.equals(field) || NAVIGABLE_FIELDS.equals(field)) {
+                wildcard = true;
+            } else if (field.startsWith(EXCLUDE_PREFIX)) {
+                excluded.add(field.substring(EXCLUDE_PREFIX.length()));
+            } else {
+                included.add(field);
+            }
+        }
+        final ImmutableSet<String> excludedFields = excluded.build();
+        if (wildcard && excludedFields.isEmpty()) {
+            return ALL;
+        }
+        return new FieldProjection(wildcard ? null : included.build(), excludedFields);
+    }
+
+    /**
+     * @return <code>true</code> when issues are expected to carry all their (navigable) fields
+     */
+    public boolean isAll() {
+        return included == null && excluded.isEmpty();
+    }
+
+    public boolean includes(final String fieldId) {
+        return (included == null || included.contains(fieldId)) && !excluded.contains(fieldId);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof FieldProjection)) {
+            return false;
+        }
+        final FieldProjection that = (FieldProjection) obj;
+        return Objects.equal(included, that.included) && excluded.equals(that.excluded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(included, excluded);
+    }
+}
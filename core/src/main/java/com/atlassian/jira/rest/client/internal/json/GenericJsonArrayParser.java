@@ -18,7 +18,12 @@ package com.atlassian.jira.rest.client.internal.json;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class GenericJsonArrayParser<T> implements JsonArrayParser<Iterable<T>> {
 
@@ -26,18 +31,100 @@ public class GenericJsonArrayParser<T> implements JsonArrayParser<Iterable<T>> {
         return new GenericJsonArrayParser<K>(jsonParser);
     }
 
+    /**
+     * Creates parser which splits arrays longer than <code>chunkSize</code> into chunks decoded in parallel on given
+     * pool. Elements keep their order. The element parser has to be safe to use from several threads.
+     *
+     * @since v5.1
+     */
+    public static <K> GenericJsonArrayParser<K> parallel(JsonObjectParser<K> jsonParser, ForkJoinPool pool, int chunkSize) {
+        return new GenericJsonArrayParser<K>(jsonParser, pool, chunkSize);
+    }
+
     private final JsonObjectParser<T> jsonParser;
+    @Nullable
+    private final ForkJoinPool pool;
+    private final int chunkSize;
 
     public GenericJsonArrayParser(JsonObjectParser<T> jsonParser) {
+        this(jsonParser, null, Integer.MAX_VALUE);
+    }
+
+    private GenericJsonArrayParser(JsonObjectParser<T> jsonParser, @Nullable ForkJoinPool pool, int chunkSize) {
         this.jsonParser = jsonParser;
+        this.pool = pool;
+        this.chunkSize = Math.max(1, chunkSize);
     }
 
     @Override
     public Iterable<T> parse(JSONArray json) throws JSONException {
-        ArrayList<T> res = new ArrayList<T>(json.length());
-        for (int i = 0; i < json.length(); i++) {
-            res.add(jsonParser.parse(json.getJSONObject(i)));
+        if (pool == null || json.length() <= chunkSize) {
+            ArrayList<T> res = new ArrayList<T>(json.length());
+            for (int i = 0; i < json.length(); i++) {
+                res.add(jsonParser.parse(json.getJSONObject(i)));
+            }
+            return res;
+        }
+        final Object[] res = new Object[json.length()];
+        try {
+            final ParseChunk task = new ParseChunk(json, res, 0, res.length);
+            if (ForkJoinTask.getPool() == pool) {
+                // already on a worker of the pool (e.g. parsing offloaded response), fork from here
+                task.invoke();
+            } else {
+                pool.invoke(task);
+            }
+        } catch (RuntimeException e) {
+            // fork/join may rethrow a copy of the exception wrapping the original one
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof ChunkFailure) {
+                    throw ((ChunkFailure) t).getCause();
+                }
+            }
+            throw e;
+        }
+        @SuppressWarnings("unchecked") final Iterable<T> elements = (Iterable<T>) Arrays.asList(res);
+        return elements;
+    }
+
+    private class ParseChunk extends RecursiveAction {
+        private final JSONArray json;
+        private final Object[] res;
+        private final int from;
+        private final int to;
+
+        ParseChunk(JSONArray json, Object[] res, int from, int to) {
+            this.json = json;
+            this.res = res;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                try {
+                    for (int i = from; i < to; i++) {
+                        res[i] = jsonParser.parse(json.getJSONObject(i));
+                    }
+                } catch (JSONException e) {
+                    throw new ChunkFailure(e);
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunk(json, res, from, middle), new ParseChunk(json, res, middle, to));
+            }
+        }
+    }
+
+    private static class ChunkFailure extends RuntimeException {
+        ChunkFailure(JSONException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JSONException getCause() {
+            return (JSONException) super.getCause();
         }
-        return res;
     }
 }
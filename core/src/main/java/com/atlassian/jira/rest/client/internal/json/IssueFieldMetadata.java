@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.atlassian.jira.rest.client.api.domain.IssueFieldIndex;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Immutable names and types of issue fields, as given by the <code>names</code> and <code>schema</code>
+ * expandos of a response. A search response carries them once for all its issues, so the table is built
+ * once per response and shared by all issue parses instead of being rebuilt for every issue, together with
+ * the {@link IssueFieldIndex} used to store the fields of every parsed issue.
+ *
+ * @since v5.1
+ */
+public class IssueFieldMetadata {
+
+    public static final IssueFieldMetadata EMPTY = new IssueFieldMetadata(ImmutableMap.<String, String>of(),
+            ImmutableMap.<String, String>of());
+
+    private final ImmutableMap<String, String> names;
+    private final ImmutableMap<String, String> types;
+    private final IssueFieldIndex fieldIndex;
+
+    private IssueFieldMetadata(final ImmutableMap<String, String> names, final ImmutableMap<String, String> types) {
+        this.names = names;
+        this.types = types;
+        final Map<String, String> indexedFields = Maps.newLinkedHashMap(names);
+        for (String fieldId : types.keySet()) {
+            if (!indexedFields.containsKey(fieldId)) {
+                indexedFields.put(fieldId, null);
+            }
+        }
+        this.fieldIndex = new IssueFieldIndex(indexedFields);
+    }
+
+    public static IssueFieldMetadata parse(@Nullable final JSONObject names, @Nullable final JSONObject schema)
+            throws JSONException {
+        if (names == null && schema == null) {
+            return EMPTY;
+        }
+        return new IssueFieldMetadata(parseNames(names), parseSchema(schema));
+    }
+
+    @Nullable
+    public String getName(final String fieldId) {
+        return names.get(fieldId);
+    }
+
+    @Nullable
+    public String getType(final String fieldId) {
+        return types.get(fieldId);
+    }
+
+    public IssueFieldIndex getFieldIndex() {
+        return fieldIndex;
+    }
+
+    private static ImmutableMap<String, String> parseSchema(@Nullable final JSONObject json) throws JSONException {
+        if (json == null) {
+            return ImmutableMap.of();
+        }
+        final ImmutableMap.Builder<String, String> res = ImmutableMap.builder();
+        final Iterator<String> it = JsonParseUtil.getStringKeys(json);
+        while (it.hasNext()) {
+            final String fieldId = it.next();
+            final JSONObject fieldDefinition = json.getJSONObject(fieldId);
+            res.put(fieldId, fieldDefinition.getString("type"));
+        }
+        return res.build();
+    }
+
+    private static ImmutableMap<String, String> parseNames(@Nullable final JSONObject json) throws JSONException {
+        if (json == null) {
+            return ImmutableMap.of();
+        }
+        final ImmutableMap.Builder<String, String> res = ImmutableMap.builder();
+        final Iterator<String> iterator = JsonParseUtil.getStringKeys(json);
+        while (iterator.hasNext()) {
+            final String key = iterator.next();
+            res.put(key, json.getString(key));
+        }
+        return res.build();
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.atlassian.jira.rest.client.internal.json;
 
+import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.domain.Attachment;
 import com.atlassian.jira.rest.client.api.domain.BasicComponent;
 import com.atlassian.jira.rest.client.api.domain.BasicIssue;
@@ -28,6 +29,7 @@ import com.atlassian.jira.rest.client.api.domain.Comment;
 import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.IssueField;
 import com.atlassian.jira.rest.client.api.domain.IssueFieldId;
+import com.atlassian.jira.rest.client.api.domain.IssueFieldIndex;
 import com.atlassian.jira.rest.client.api.domain.IssueLink;
 import com.atlassian.jira.rest.client.api.domain.IssueType;
 import com.atlassian.jira.rest.client.api.domain.Operations;
@@ -39,7 +41,6 @@ import com.atlassian.jira.rest.client.api.domain.User;
 import com.atlassian.jira.rest.client.api.domain.Version;
 import com.atlassian.jira.rest.client.api.domain.Worklog;
 import com.google.common.base.Splitter;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
@@ -52,9 +53,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 
 import static com.atlassian.jira.rest.client.api.domain.IssueFieldId.AFFECTS_VERSIONS_FIELD;
@@ -82,7 +81,6 @@ import static com.atlassian.jira.rest.client.api.domain.IssueFieldId.VOTES_FIELD
 import static com.atlassian.jira.rest.client.api.domain.IssueFieldId.WATCHER_FIELD;
 import static com.atlassian.jira.rest.client.api.domain.IssueFieldId.WORKLOGS_FIELD;
 import static com.atlassian.jira.rest.client.api.domain.IssueFieldId.WORKLOG_FIELD;
-import static com.atlassian.jira.rest.client.internal.json.JsonParseUtil.getStringKeys;
 import static com.atlassian.jira.rest.client.internal.json.JsonParseUtil.parseOptionalJsonObject;
 
 public class IssueJsonParser implements JsonObjectParser<Issue> {
@@ -95,17 +93,17 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
     private final BasicIssueJsonParser basicIssueJsonParser = new BasicIssueJsonParser();
     private final IssueLinkJsonParserV5 issueLinkJsonParserV5 = new IssueLinkJsonParserV5();
     private final BasicVotesJsonParser votesJsonParser = new BasicVotesJsonParser();
-    private final StatusJsonParser statusJsonParser = new StatusJsonParser();
+    private final JsonObjectParser<Status> statusJsonParser;
     private final JsonObjectParser<BasicWatchers> watchersJsonParser = WatchersJsonParserBuilder.createBasicWatchersParser();
     private final VersionJsonParser versionJsonParser = new VersionJsonParser();
     private final BasicComponentJsonParser basicComponentJsonParser = new BasicComponentJsonParser();
     private final AttachmentJsonParser attachmentJsonParser = new AttachmentJsonParser();
     private final CommentJsonParser commentJsonParser = new CommentJsonParser();
-    private final IssueTypeJsonParser issueTypeJsonParser = new IssueTypeJsonParser();
-    private final BasicProjectJsonParser projectJsonParser = new BasicProjectJsonParser();
-    private final BasicPriorityJsonParser priorityJsonParser = new BasicPriorityJsonParser();
-    private final ResolutionJsonParser resolutionJsonParser = new ResolutionJsonParser();
-    private final UserJsonParser userJsonParser = new UserJsonParser();
+    private final JsonObjectParser<IssueType> issueTypeJsonParser;
+    private final JsonObjectParser<BasicProject> projectJsonParser;
+    private final JsonObjectParser<BasicPriority> priorityJsonParser;
+    private final JsonObjectParser<Resolution> resolutionJsonParser;
+    private final JsonObjectParser<User> userJsonParser;
     private final SubtaskJsonParser subtaskJsonParser = new SubtaskJsonParser();
     private final ChangelogJsonParser changelogJsonParser = new ChangelogJsonParser();
     private final OperationsJsonParser operationsJsonParser = new OperationsJsonParser();
@@ -114,17 +112,49 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
     private static final String FIELDS = "fields";
     private static final String VALUE_ATTR = "value";
 
-    private final JSONObject providedNames;
-    private final JSONObject providedSchema;
+    private final IssueFieldMetadata providedFieldMetadata;
+    private final boolean lazy;
+    private final FieldProjection projection;
 
     public IssueJsonParser() {
-        providedNames = null;
-        providedSchema = null;
+        this(null, IssueParsingOptions.DEFAULT);
     }
 
     public IssueJsonParser(final JSONObject providedNames, final JSONObject providedSchema) {
-        this.providedNames = providedNames;
-        this.providedSchema = providedSchema;
+        this(parseFieldMetadata(providedNames, providedSchema), IssueParsingOptions.DEFAULT);
+    }
+
+    /**
+     * @param providedFieldMetadata field names and types shared by all issues parsed by this parser or
+     *                              <code>null</code> to read them from every issue
+     * @param options               laziness, projection and interner of the parsed issues; a single issue is
+     *                              always decoded on the calling thread
+     * @since v5.1
+     */
+    public IssueJsonParser(@Nullable final IssueFieldMetadata providedFieldMetadata, final IssueParsingOptions options) {
+        final EntityInterner interner = options.getInterner();
+        this.providedFieldMetadata = providedFieldMetadata;
+        this.lazy = options.isLazy();
+        this.projection = options.getProjection();
+        this.statusJsonParser = interning(interner, Status.class, new StatusJsonParser());
+        this.issueTypeJsonParser = interning(interner, IssueType.class, new IssueTypeJsonParser());
+        this.projectJsonParser = interning(interner, BasicProject.class, new BasicProjectJsonParser());
+        this.priorityJsonParser = interning(interner, BasicPriority.class, new BasicPriorityJsonParser());
+        this.resolutionJsonParser = interning(interner, Resolution.class, new ResolutionJsonParser());
+        this.userJsonParser = interning(interner, User.class, new UserJsonParser());
+    }
+
+    private static <T> JsonObjectParser<T> interning(@Nullable final EntityInterner interner, final Class<T> type,
+                                                     final JsonObjectParser<T> parser) {
+        return interner != null ? interner.interning(type, parser) : parser;
+    }
+
+    private static IssueFieldMetadata parseFieldMetadata(final JSONObject providedNames, final JSONObject providedSchema) {
+        try {
+            return IssueFieldMetadata.parse(providedNames, providedSchema);
+        } catch (JSONException e) {
+            throw new RestClientException(e);
+        }
     }
 
     static Iterable<String> parseExpandos(final JSONObject json) throws JSONException {
@@ -211,43 +241,32 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
     public Issue parse(final JSONObject issueJson) throws JSONException {
         final BasicIssue basicIssue = basicIssueJsonParser.parse(issueJson);
         final Iterable<String> expandos = parseExpandos(issueJson);
-        final JSONObject jsonFields = issueJson.getJSONObject(FIELDS);
-        final JSONObject commentsJson = jsonFields.optJSONObject(COMMENT_FIELD.id);
-        final Collection<Comment> comments = (commentsJson == null) ? Collections.<Comment>emptyList()
-                : parseArray(commentsJson, new JsonWeakParserForJsonObject<Comment>(commentJsonParser), "comments");
-
-        final String summary = getFieldStringValue(issueJson, SUMMARY_FIELD.id);
-        final String description = getOptionalFieldStringUnisex(issueJson, DESCRIPTION_FIELD.id);
 
-        final Collection<Attachment> attachments = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Attachment>(attachmentJsonParser), FIELDS, ATTACHMENT_FIELD.id);
-        final Collection<IssueField> fields = parseFields(issueJson);
+        final String summary = isRequired(issueJson, SUMMARY_FIELD) ? getFieldStringValue(issueJson, SUMMARY_FIELD.id) : null;
+        final String description = projection.includes(DESCRIPTION_FIELD.id)
+                ? getOptionalFieldStringUnisex(issueJson, DESCRIPTION_FIELD.id) : null;
 
-        final IssueType issueType = issueTypeJsonParser.parse(getFieldUnisex(issueJson, ISSUE_TYPE_FIELD.id));
-        final DateTime creationDate = JsonParseUtil.parseDateTime(getFieldStringUnisex(issueJson, CREATED_FIELD.id));
-        final DateTime updateDate = JsonParseUtil.parseDateTime(getFieldStringUnisex(issueJson, UPDATED_FIELD.id));
+        final IssueType issueType = isRequired(issueJson, ISSUE_TYPE_FIELD)
+                ? issueTypeJsonParser.parse(getFieldUnisex(issueJson, ISSUE_TYPE_FIELD.id)) : null;
+        final DateTime creationDate = isRequired(issueJson, CREATED_FIELD)
+                ? JsonParseUtil.parseDateTime(getFieldStringUnisex(issueJson, CREATED_FIELD.id)) : null;
+        final DateTime updateDate = isRequired(issueJson, UPDATED_FIELD)
+                ? JsonParseUtil.parseDateTime(getFieldStringUnisex(issueJson, UPDATED_FIELD.id)) : null;
 
-        final String dueDateString = getOptionalFieldStringUnisex(issueJson, DUE_DATE_FIELD.id);
+        final String dueDateString = projection.includes(DUE_DATE_FIELD.id)
+                ? getOptionalFieldStringUnisex(issueJson, DUE_DATE_FIELD.id) : null;
         final DateTime dueDate = dueDateString == null ? null : JsonParseUtil.parseDateTimeOrDate(dueDateString);
 
-        final BasicPriority priority = getOptionalNestedField(issueJson, PRIORITY_FIELD.id, priorityJsonParser);
-        final Resolution resolution = getOptionalNestedField(issueJson, RESOLUTION_FIELD.id, resolutionJsonParser);
-        final User assignee = getOptionalNestedField(issueJson, ASSIGNEE_FIELD.id, userJsonParser);
-        final User reporter = getOptionalNestedField(issueJson, REPORTER_FIELD.id, userJsonParser);
-
-        final BasicProject project = projectJsonParser.parse(getFieldUnisex(issueJson, PROJECT_FIELD.id));
-        final Collection<IssueLink> issueLinks;
-        issueLinks = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<IssueLink>(issueLinkJsonParserV5), FIELDS, LINKS_FIELD.id);
-
-        Collection<Subtask> subtasks = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Subtask>(subtaskJsonParser), FIELDS, SUBTASKS_FIELD.id);
+        final BasicPriority priority = getProjectedField(issueJson, PRIORITY_FIELD, priorityJsonParser);
+        final Resolution resolution = getProjectedField(issueJson, RESOLUTION_FIELD, resolutionJsonParser);
+        final User assignee = getProjectedField(issueJson, ASSIGNEE_FIELD, userJsonParser);
+        final User reporter = getProjectedField(issueJson, REPORTER_FIELD, userJsonParser);
 
-        final BasicVotes votes = getOptionalNestedField(issueJson, VOTES_FIELD.id, votesJsonParser);
-        final Status status = statusJsonParser.parse(getFieldUnisex(issueJson, STATUS_FIELD.id));
+        final BasicProject project = isRequired(issueJson, PROJECT_FIELD)
+                ? projectJsonParser.parse(getFieldUnisex(issueJson, PROJECT_FIELD.id)) : null;
+        final Status status = isRequired(issueJson, STATUS_FIELD)
+                ? statusJsonParser.parse(getFieldUnisex(issueJson, STATUS_FIELD.id)) : null;
 
-        final Collection<Version> fixVersions = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Version>(versionJsonParser), FIELDS, FIX_VERSIONS_FIELD.id);
-        final Collection<Version> affectedVersions = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Version>(versionJsonParser), FIELDS, AFFECTS_VERSIONS_FIELD.id);
-        final Collection<BasicComponent> components = parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<BasicComponent>(basicComponentJsonParser), FIELDS, COMPONENTS_FIELD.id);
-
-        final Collection<Worklog> worklogs;
         final URI selfUri = basicIssue.getSelf();
 
         final String transitionsUriString;
@@ -259,30 +278,133 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
         }
         final URI transitionsUri = parseTransisionsUri(transitionsUriString, selfUri);
 
-        if (JsonParseUtil.getNestedOptionalObject(issueJson, FIELDS, WORKLOG_FIELD.id) != null) {
-            worklogs = parseOptionalArray(issueJson,
+        if (lazy) {
+            return new LazyIssue(this, issueJson, summary, selfUri, basicIssue.getKey(), basicIssue.getId(), project,
+                    issueType, status, description, priority, resolution, reporter, assignee, creationDate, updateDate,
+                    dueDate, transitionsUri, expandos);
+        }
+
+        return new Issue(summary, selfUri, basicIssue.getKey(), basicIssue.getId(), project, issueType, status,
+                description, priority, resolution, parseAttachments(issueJson), reporter, assignee, creationDate, updateDate,
+                dueDate, parseAffectedVersions(issueJson), parseFixVersions(issueJson), parseComponents(issueJson),
+                parseTimeTracking(issueJson), parseFields(issueJson), parseComments(issueJson),
+                transitionsUri, parseIssueLinks(issueJson),
+                parseVotes(issueJson), parseWorklogs(issueJson, selfUri), parseWatchers(issueJson), expandos,
+                parseSubtasks(issueJson), parseChangelog(issueJson), parseOperations(issueJson), parseLabels(issueJson));
+    }
+
+    /**
+     * Fields which are mandatory for a complete issue are skipped when they were left out by the projection.
+     */
+    private boolean isRequired(final JSONObject issueJson, final IssueFieldId field) throws JSONException {
+        return projection.isAll() || (projection.includes(field.id) && issueJson.getJSONObject(FIELDS).has(field.id));
+    }
+
+    @Nullable
+    private <T> T getProjectedField(final JSONObject issueJson, final IssueFieldId field, final JsonObjectParser<T> jsonParser)
+            throws JSONException {
+        return projection.includes(field.id) ? getOptionalNestedField(issueJson, field.id, jsonParser) : null;
+    }
+
+    Collection<Comment> parseComments(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(COMMENT_FIELD.id)) {
+            return Collections.emptyList();
+        }
+        final JSONObject commentsJson = issueJson.getJSONObject(FIELDS).optJSONObject(COMMENT_FIELD.id);
+        return (commentsJson == null) ? Collections.<Comment>emptyList()
+                : parseArray(commentsJson, new JsonWeakParserForJsonObject<Comment>(commentJsonParser), "comments");
+    }
+
+    @Nullable
+    Collection<Attachment> parseAttachments(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(ATTACHMENT_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Attachment>(attachmentJsonParser), FIELDS, ATTACHMENT_FIELD.id);
+    }
+
+    @Nullable
+    Collection<IssueLink> parseIssueLinks(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(LINKS_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<IssueLink>(issueLinkJsonParserV5), FIELDS, LINKS_FIELD.id);
+    }
+
+    @Nullable
+    Collection<Subtask> parseSubtasks(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(SUBTASKS_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Subtask>(subtaskJsonParser), FIELDS, SUBTASKS_FIELD.id);
+    }
+
+    @Nullable
+    BasicVotes parseVotes(final JSONObject issueJson) throws JSONException {
+        return getProjectedField(issueJson, VOTES_FIELD, votesJsonParser);
+    }
+
+    @Nullable
+    Collection<Version> parseFixVersions(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(FIX_VERSIONS_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Version>(versionJsonParser), FIELDS, FIX_VERSIONS_FIELD.id);
+    }
+
+    @Nullable
+    Collection<Version> parseAffectedVersions(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(AFFECTS_VERSIONS_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<Version>(versionJsonParser), FIELDS, AFFECTS_VERSIONS_FIELD.id);
+    }
+
+    @Nullable
+    Collection<BasicComponent> parseComponents(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(COMPONENTS_FIELD.id)) {
+            return null;
+        }
+        return parseOptionalArray(issueJson, new JsonWeakParserForJsonObject<BasicComponent>(basicComponentJsonParser), FIELDS, COMPONENTS_FIELD.id);
+    }
+
+    Collection<Worklog> parseWorklogs(final JSONObject issueJson, final URI selfUri) throws JSONException {
+        if (projection.includes(WORKLOG_FIELD.id)
+                && JsonParseUtil.getNestedOptionalObject(issueJson, FIELDS, WORKLOG_FIELD.id) != null) {
+            return parseOptionalArray(issueJson,
                     new JsonWeakParserForJsonObject<Worklog>(new WorklogJsonParserV5(selfUri)),
                     FIELDS, WORKLOG_FIELD.id, WORKLOGS_FIELD.id);
         } else {
-            worklogs = Collections.emptyList();
+            return Collections.emptyList();
         }
+    }
 
+    @Nullable
+    BasicWatchers parseWatchers(final JSONObject issueJson) throws JSONException {
+        return getProjectedField(issueJson, WATCHER_FIELD, watchersJsonParser);
+    }
 
-        final BasicWatchers watchers = getOptionalNestedField(issueJson, WATCHER_FIELD.id, watchersJsonParser);
-        final TimeTracking timeTracking = getOptionalNestedField(issueJson, TIMETRACKING_FIELD.id, new TimeTrackingJsonParserV5());
+    @Nullable
+    TimeTracking parseTimeTracking(final JSONObject issueJson) throws JSONException {
+        return getProjectedField(issueJson, TIMETRACKING_FIELD, new TimeTrackingJsonParserV5());
+    }
 
-        final Set<String> labels = Sets
-                .newHashSet(parseOptionalArrayNotNullable(issueJson, jsonWeakParserForString, FIELDS, LABELS_FIELD.id));
+    Set<String> parseLabels(final JSONObject issueJson) throws JSONException {
+        if (!projection.includes(LABELS_FIELD.id)) {
+            return Sets.newHashSet();
+        }
+        return Sets.newHashSet(parseOptionalArrayNotNullable(issueJson, jsonWeakParserForString, FIELDS, LABELS_FIELD.id));
+    }
 
-        final Collection<ChangelogGroup> changelog = parseOptionalArray(
+    @Nullable
+    Collection<ChangelogGroup> parseChangelog(final JSONObject issueJson) throws JSONException {
+        return parseOptionalArray(
                 issueJson, new JsonWeakParserForJsonObject<ChangelogGroup>(changelogJsonParser), "changelog", "histories");
-        final Operations operations = parseOptionalJsonObject(issueJson, "operations", operationsJsonParser);
+    }
 
-        return new Issue(summary, selfUri, basicIssue.getKey(), basicIssue.getId(), project, issueType, status,
-                description, priority, resolution, attachments, reporter, assignee, creationDate, updateDate,
-                dueDate, affectedVersions, fixVersions, components, timeTracking, fields, comments,
-                transitionsUri, issueLinks,
-                votes, worklogs, watchers, expandos, subtasks, changelog, operations, labels);
+    @Nullable
+    Operations parseOperations(final JSONObject issueJson) throws JSONException {
+        return parseOptionalJsonObject(issueJson, "operations", operationsJsonParser);
     }
 
     private URI parseTransisionsUri(final String transitionsUriString, final URI selfUri) {
@@ -302,14 +424,12 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
         return null;
     }
 
-    private Collection<IssueField> parseFields(final JSONObject issueJson) throws JSONException {
-        final JSONObject names = (providedNames != null) ? providedNames : issueJson.optJSONObject(NAMES_SECTION);
-        final Map<String, String> namesMap = parseNames(names);
-        final JSONObject schema = (providedSchema != null) ? providedSchema : issueJson.optJSONObject(SCHEMA_SECTION);
-        final Map<String, String> typesMap = parseSchema(schema);
+    Collection<IssueField> parseFields(final JSONObject issueJson) throws JSONException {
+        final IssueFieldMetadata fieldMetadata = (providedFieldMetadata != null) ? providedFieldMetadata
+                : IssueFieldMetadata.parse(issueJson.optJSONObject(NAMES_SECTION), issueJson.optJSONObject(SCHEMA_SECTION));
 
         final JSONObject json = issueJson.getJSONObject(FIELDS);
-        final ArrayList<IssueField> res = new ArrayList<IssueField>(json.length());
+        final IssueFieldIndex.FieldsBuilder res = fieldMetadata.getFieldIndex().newFieldsBuilder();
         @SuppressWarnings("unchecked") final Iterator<String> iterator = json.keys();
         while (iterator.hasNext()) {
             final String key = iterator.next();
@@ -321,7 +441,7 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
                 // we should use fieldParser here (some new version as the old one probably won't work)
                 // enable IssueJsonParserTest#testParseIssueWithUserPickerCustomFieldFilledOut after fixing this
                 final Object value = json.opt(key);
-                res.add(new IssueField(key, namesMap.get(key), typesMap.get("key"), value != JSONObject.NULL ? value : null));
+                res.add(new IssueField(key, fieldMetadata.getName(key), fieldMetadata.getType(key), value != JSONObject.NULL ? value : null));
             } catch (final Exception e) {
                 throw new JSONException("Error while parsing [" + key + "] field: " + e.getMessage()) {
                     @Override
@@ -331,29 +451,7 @@ public class IssueJsonParser implements JsonObjectParser<Issue> {
                 };
             }
         }
-        return res;
-    }
-
-    private Map<String, String> parseSchema(final JSONObject json) throws JSONException {
-        final HashMap<String, String> res = Maps.newHashMap();
-        final Iterator<String> it = JsonParseUtil.getStringKeys(json);
-        while (it.hasNext()) {
-            final String fieldId = it.next();
-            JSONObject fieldDefinition = json.getJSONObject(fieldId);
-            res.put(fieldId, fieldDefinition.getString("type"));
-
-        }
-        return res;
-    }
-
-    private Map<String, String> parseNames(final JSONObject json) throws JSONException {
-        final HashMap<String, String> res = Maps.newHashMap();
-        final Iterator<String> iterator = getStringKeys(json);
-        while (iterator.hasNext()) {
-            final String key = iterator.next();
-            res.put(key, json.getString(key));
-        }
-        return res;
+        return res.build();
     }
 
 }
\ No newline at end of file
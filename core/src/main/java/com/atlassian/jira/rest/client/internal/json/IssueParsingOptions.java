@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * How {@link IssueJsonParser} and {@link SearchResultJsonParser} decode issues: eagerly or on first access, which
+ * fields, whether reference entities are shared beyond a single response and whether large pages are decoded in
+ * parallel. Immutable; {@link #DEFAULT} decodes everything eagerly on the calling thread. Options are equal when
+ * they decode the same fields the same way, with the same interner and pool.
+ *
+ * @since v5.1
+ */
+public final class IssueParsingOptions {
+
+    public static final IssueParsingOptions DEFAULT = builder().build();
+
+    private final boolean lazy;
+    private final FieldProjection projection;
+    @Nullable
+    private final EntityInterner interner;
+    @Nullable
+    private final ForkJoinPool decodingPool;
+
+    private IssueParsingOptions(final boolean lazy, final FieldProjection projection,
+                                @Nullable final EntityInterner interner, @Nullable final ForkJoinPool decodingPool) {
+        this.lazy = lazy;
+        this.projection = projection;
+        this.interner = interner;
+        this.decodingPool = decodingPool;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public FieldProjection getProjection() {
+        return projection;
+    }
+
+    @Nullable
+    public EntityInterner getInterner() {
+        return interner;
+    }
+
+    @Nullable
+    public ForkJoinPool getDecodingPool() {
+        return decodingPool;
+    }
+
+    /**
+     * @return these options for a search requesting given fields only
+     */
+    public IssueParsingOptions withProjection(final FieldProjection projection) {
+        return new IssueParsingOptions(lazy, Preconditions.checkNotNull(projection), interner, decodingPool);
+    }
+
+    IssueParsingOptions withInterner(final EntityInterner interner) {
+        return new IssueParsingOptions(lazy, projection, interner, decodingPool);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof IssueParsingOptions)) {
+            return false;
+        }
+        final IssueParsingOptions that = (IssueParsingOptions) obj;
+        return lazy == that.lazy && projection.equals(that.projection) && interner == that.interner
+                && decodingPool == that.decodingPool;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(lazy, projection, System.identityHashCode(interner),
+                System.identityHashCode(decodingPool));
+    }
+
+    public static class Builder {
+        private boolean lazy;
+        private FieldProjection projection = FieldProjection.ALL;
+        @Nullable
+        private EntityInterner interner;
+        @Nullable
+        private ForkJoinPool decodingPool;
+
+        private Builder() {
+        }
+
+        /**
+         * @param lazy when <code>true</code> only the basic attributes (key, summary, status, dates, people, ...) are
+         *             decoded upfront; comments, worklogs, changelog, attachments, links, subtasks, versions,
+         *             components, operations and all other fields are decoded from the retained JSON the first time
+         *             they are read. Worth it for callers which read just a few attributes of every issue.
+         */
+        public Builder lazy(final boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        /**
+         * @param projection fields requested from the server; fields outside of it are not decoded and fields which
+         *                   are otherwise required may be missing, leaving their getters <code>null</code> (or empty)
+         */
+        public Builder projection(final FieldProjection projection) {
+            this.projection = Preconditions.checkNotNull(projection);
+            return this;
+        }
+
+        /**
+         * @param interner interner sharing statuses, issue types, projects, priorities, resolutions and users between
+         *                 all issues parsed with these options; <code>null</code> to share them within a single search
+         *                 result only
+         */
+        public Builder interner(@Nullable final EntityInterner interner) {
+            this.interner = interner;
+            return this;
+        }
+
+        /**
+         * @param decodingPool pool to decode large pages of search results on in parallel chunks, <code>null</code>
+         *                     to decode them one by one on the calling thread
+         */
+        public Builder decodingPool(@Nullable final ForkJoinPool decodingPool) {
+            this.decodingPool = decodingPool;
+            return this;
+        }
+
+        public IssueParsingOptions build() {
+            return new IssueParsingOptions(lazy, projection, interner, decodingPool);
+        }
+    }
+}
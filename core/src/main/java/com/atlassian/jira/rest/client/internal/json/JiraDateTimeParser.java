@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.IllegalFieldValueException;
+import org.joda.time.chrono.ISOChronology;
+
+import javax.annotation.Nullable;
+
+/**
+ * Parser of the fixed layouts JIRA uses for timestamps (<code>2010-07-26T13:29:18.262+0200</code>) and dates
+ * (<code>2010-07-26</code>), reading the digits in place. Strings in any other layout are reported as
+ * {@link #UNPARSEABLE} without throwing, so that the caller can hand them over to a general purpose formatter.
+ *
+ * @since v5.1
+ */
+final class JiraDateTimeParser {
+
+    static final long UNPARSEABLE = Long.MIN_VALUE;
+
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+    private static final int DATE_LENGTH = "yyyy-MM-dd".length();
+    private static final int OFFSET_START = "yyyy-MM-ddTHH:mm:ss.SSS".length();
+
+    private JiraDateTimeParser() {
+    }
+
+    /**
+     * @param str timestamp in the <code>yyyy-MM-dd'T'HH:mm:ss.SSS</code> layout followed by <code>Z</code>,
+     *            <code>+HHmm</code> or <code>+HH:mm</code>
+     * @return milliseconds since epoch or {@link #UNPARSEABLE} when the string has a different layout
+     * or contains out of range values
+     */
+    static long parseDateTimeMillis(final String str) {
+        final int length = str.length();
+        if (length < OFFSET_START + 1 || !hasDateLayout(str) || str.charAt(10) != 'T' || str.charAt(13) != ':'
+                || str.charAt(16) != ':' || str.charAt(19) != '.') {
+            return UNPARSEABLE;
+        }
+        final int hour = digits(str, 11, 2);
+        final int minute = digits(str, 14, 2);
+        final int second = digits(str, 17, 2);
+        final int millis = digits(str, 20, 3);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0) {
+            return UNPARSEABLE;
+        }
+
+        final int offsetMillis;
+        final char sign = str.charAt(OFFSET_START);
+        if (sign == 'Z' && length == OFFSET_START + 1) {
+            offsetMillis = 0;
+        } else if (sign == '+' || sign == '-') {
+            final int offsetHours = digits(str, OFFSET_START + 1, 2);
+            final int offsetMinutes;
+            if (length == OFFSET_START + 5) {
+                offsetMinutes = digits(str, OFFSET_START + 3, 2);
+            } else if (length == OFFSET_START + 6 && str.charAt(OFFSET_START + 3) == ':') {
+                offsetMinutes = digits(str, OFFSET_START + 4, 2);
+            } else {
+                return UNPARSEABLE;
+            }
+            if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return UNPARSEABLE;
+            }
+            final int offset = (offsetHours * 60 + offsetMinutes) * 60000;
+            offsetMillis = sign == '-' ? -offset : offset;
+        } else {
+            return UNPARSEABLE;
+        }
+
+        final long localMillis = localMillis(str, hour, minute, second, millis);
+        return localMillis == UNPARSEABLE ? UNPARSEABLE : localMillis - offsetMillis;
+    }
+
+    /**
+     * @return <code>true</code> when given string is a date in the <code>yyyy-MM-dd</code> layout
+     */
+    static boolean isDate(final String str) {
+        return str.length() == DATE_LENGTH && hasDateLayout(str);
+    }
+
+    /**
+     * @return midnight of given <code>yyyy-MM-dd</code> date in the default time zone or <code>null</code> when
+     * the string has a different layout or is not a valid date
+     */
+    @Nullable
+    static DateTime parseDate(final String str) {
+        if (!isDate(str)) {
+            return null;
+        }
+        try {
+            return new DateTime(digits(str, 0, 4), digits(str, 5, 2), digits(str, 8, 2), 0, 0);
+        } catch (IllegalArgumentException e) {
+            // invalid day of month or midnight skipped by a DST transition, the fallback formatter reports it
+            return null;
+        }
+    }
+
+    private static boolean hasDateLayout(final String str) {
+        return str.length() >= DATE_LENGTH && str.charAt(4) == '-' && str.charAt(7) == '-'
+                && digits(str, 0, 4) >= 0 && digits(str, 5, 2) >= 0 && digits(str, 8, 2) >= 0;
+    }
+
+    private static long localMillis(final String str, final int hour, final int minute, final int second, final int millis) {
+        final int month = digits(str, 5, 2);
+        final int day = digits(str, 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return UNPARSEABLE;
+        }
+        try {
+            return UTC.getDateTimeMillis(digits(str, 0, 4), month, day, hour, minute, second, millis);
+        } catch (IllegalFieldValueException e) {
+            // e.g. 31st of a shorter month, the fallback formatter reports it properly
+            return UNPARSEABLE;
+        }
+    }
+
+    /**
+     * @return value of the decimal digits at given position or -1 if any of the characters is not a digit
+     */
+    private static int digits(final String str, final int start, final int count) {
+        int res = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            res = res * 10 + (c - '0');
+        }
+        return res;
+    }
+}
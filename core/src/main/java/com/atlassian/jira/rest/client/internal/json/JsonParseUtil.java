@@ -210,6 +210,10 @@ public class JsonParseUtil {
     }
 
     public static DateTime parseDateTime(final String str) {
+        final long millis = JiraDateTimeParser.parseDateTimeMillis(str);
+        if (millis != JiraDateTimeParser.UNPARSEABLE) {
+            return new DateTime(millis);
+        }
         try {
             return JIRA_DATE_TIME_FORMATTER.parseDateTime(str);
         } catch (Exception e) {
@@ -224,9 +228,13 @@ public class JsonParseUtil {
      * @return date and time or date only
      */
     public static DateTime parseDateTimeOrDate(final String str) {
+        if (JiraDateTimeParser.isDate(str)) {
+            return parseDate(str);
+        }
         try {
-            return JIRA_DATE_TIME_FORMATTER.parseDateTime(str);
-        } catch (Exception ignored) {
+            return parseDateTime(str);
+        } catch (RestClientException ignored) {
+            // dates not padded to the layout the fast path expects, e.g. 2010-7-26
             try {
                 return JIRA_DATE_FORMATTER.parseDateTime(str);
             } catch (Exception e) {
@@ -236,6 +244,10 @@ public class JsonParseUtil {
     }
 
     public static DateTime parseDate(final String str) {
+        final DateTime date = JiraDateTimeParser.parseDate(str);
+        if (date != null) {
+            return date;
+        }
         try {
             return JIRA_DATE_FORMATTER.parseDateTime(str);
         } catch (Exception e) {
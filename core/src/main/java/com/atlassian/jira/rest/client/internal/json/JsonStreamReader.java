@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Builds Jettison objects directly from a response stream using a token based pull parser.
+ * <p>
+ * Compared to <code>new JSONObject(response.getEntity())</code> this avoids materializing the whole payload
+ * as a String (and the char buffer Jettison's tokenizer works on) before the tree is built, so
+ * the existing {@link JsonObjectParser}s can be fed without the intermediate copies.
+ * Numbers are mapped the same way Jettison maps them: Integer, then Long, then Double.
+ *
+ * @since v5.1
+ */
+public class JsonStreamReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonStreamReader() {
+    }
+
+    public static JSONObject readObject(final InputStream inputStream) throws JSONException, IOException {
+        final org.codehaus.jackson.JsonParser parser = JSON_FACTORY.createJsonParser(inputStream);
+        try {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            return readObject(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    public static JSONArray readArray(final InputStream inputStream) throws JSONException, IOException {
+        final org.codehaus.jackson.JsonParser parser = JSON_FACTORY.createJsonParser(inputStream);
+        try {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            return readArray(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static JSONObject readObject(final org.codehaus.jackson.JsonParser parser) throws JSONException, IOException {
+        final JSONObject res = new JSONObject();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            res.put(name, readValue(parser, parser.nextToken()));
+        }
+        expect(parser, token, JsonToken.END_OBJECT);
+        return res;
+    }
+
+    private static JSONArray readArray(final org.codehaus.jackson.JsonParser parser) throws JSONException, IOException {
+        final JSONArray res = new JSONArray();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JSONException("Unexpected end of JSON input, expected " + JsonToken.END_ARRAY);
+            }
+            res.put(readValue(parser, token));
+        }
+        return res;
+    }
+
+    private static Object readValue(final org.codehaus.jackson.JsonParser parser, final JsonToken token)
+            throws JSONException, IOException {
+        if (token == null) {
+            throw new JSONException("Unexpected end of JSON input");
+        }
+        switch (token) {
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                return readArray(parser);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        return parser.getIntValue();
+                    case LONG:
+                        return parser.getLongValue();
+                    default:
+                        return parser.getDoubleValue();
+                }
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected JSON token " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static void expect(final org.codehaus.jackson.JsonParser parser, final JsonToken actual, final JsonToken expected)
+            throws JSONException {
+        if (actual != expected) {
+            throw new JSONException("Expected " + expected + " but found " + actual + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.Attachment;
+import com.atlassian.jira.rest.client.api.domain.BasicComponent;
+import com.atlassian.jira.rest.client.api.domain.BasicPriority;
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.atlassian.jira.rest.client.api.domain.BasicVotes;
+import com.atlassian.jira.rest.client.api.domain.BasicWatchers;
+import com.atlassian.jira.rest.client.api.domain.ChangelogGroup;
+import com.atlassian.jira.rest.client.api.domain.Comment;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.IssueField;
+import com.atlassian.jira.rest.client.api.domain.IssueLink;
+import com.atlassian.jira.rest.client.api.domain.IssueType;
+import com.atlassian.jira.rest.client.api.domain.Operations;
+import com.atlassian.jira.rest.client.api.domain.Resolution;
+import com.atlassian.jira.rest.client.api.domain.Status;
+import com.atlassian.jira.rest.client.api.domain.Subtask;
+import com.atlassian.jira.rest.client.api.domain.TimeTracking;
+import com.atlassian.jira.rest.client.api.domain.User;
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.atlassian.jira.rest.client.api.domain.Worklog;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Issue which keeps the parsed JSON and decodes its heavier sections (comments, worklogs, changelog, attachments,
+ * links, subtasks, versions, components, operations, fields, ...) only when their getter is called for the first
+ * time. Every section is decoded at most once, also when read concurrently.
+ * <p>
+ * A section which cannot be decoded fails with {@link RestClientException} from its getter instead of failing
+ * the whole parse.
+ *
+ * @since v5.1
+ */
+class LazyIssue extends Issue {
+
+    private final Supplier<Collection<Attachment>> attachments;
+    private final Supplier<Collection<Version>> affectedVersions;
+    private final Supplier<Collection<Version>> fixVersions;
+    private final Supplier<Collection<BasicComponent>> components;
+    private final Supplier<TimeTracking> timeTracking;
+    private final Supplier<Collection<IssueField>> fields;
+    private final Supplier<Collection<Comment>> comments;
+    private final Supplier<Collection<IssueLink>> issueLinks;
+    private final Supplier<BasicVotes> votes;
+    private final Supplier<Collection<Worklog>> worklogs;
+    private final Supplier<BasicWatchers> watchers;
+    private final Supplier<Collection<Subtask>> subtasks;
+    private final Supplier<Collection<ChangelogGroup>> changelog;
+    private final Supplier<Operations> operations;
+    private final Supplier<Set<String>> labels;
+
+    LazyIssue(final IssueJsonParser parser, final JSONObject issueJson, final String summary, final URI self,
+              final String key, final Long id, final BasicProject project, final IssueType issueType, final Status status,
+              @Nullable final String description, @Nullable final BasicPriority priority,
+              @Nullable final Resolution resolution, @Nullable final User reporter, @Nullable final User assignee,
+              final DateTime creationDate, final DateTime updateDate, @Nullable final DateTime dueDate,
+              @Nullable final URI transitionsUri, final Iterable<String> expandos) {
+        super(summary, self, key, id, project, issueType, status, description, priority, resolution, null, reporter,
+                assignee, creationDate, updateDate, dueDate, null, null, null, null, null, null, transitionsUri, null,
+                null, null, null, expandos, null, null, null, null);
+        attachments = lazily(() -> parser.parseAttachments(issueJson));
+        affectedVersions = lazily(() -> parser.parseAffectedVersions(issueJson));
+        fixVersions = lazily(() -> parser.parseFixVersions(issueJson));
+        components = lazily(() -> parser.parseComponents(issueJson));
+        timeTracking = lazily(() -> parser.parseTimeTracking(issueJson));
+        fields = lazily(() -> parser.parseFields(issueJson));
+        comments = lazily(() -> parser.parseComments(issueJson));
+        issueLinks = lazily(() -> parser.parseIssueLinks(issueJson));
+        votes = lazily(() -> parser.parseVotes(issueJson));
+        worklogs = lazily(() -> parser.parseWorklogs(issueJson, self));
+        watchers = lazily(() -> parser.parseWatchers(issueJson));
+        subtasks = lazily(() -> parser.parseSubtasks(issueJson));
+        changelog = lazily(() -> parser.parseChangelog(issueJson));
+        operations = lazily(() -> parser.parseOperations(issueJson));
+        labels = lazily(() -> parser.parseLabels(issueJson));
+    }
+
+    @Nullable
+    @Override
+    public Iterable<IssueLink> getIssueLinks() {
+        return issueLinks.get();
+    }
+
+    @Nullable
+    @Override
+    public Iterable<Subtask> getSubtasks() {
+        return subtasks.get();
+    }
+
+    @Override
+    public Iterable<IssueField> getFields() {
+        return fields.get();
+    }
+
+    @Override
+    public Iterable<Attachment> getAttachments() {
+        return attachments.get();
+    }
+
+    @Override
+    public Iterable<Comment> getComments() {
+        return comments.get();
+    }
+
+    @Nullable
+    @Override
+    public BasicVotes getVotes() {
+        return votes.get();
+    }
+
+    @Override
+    public Iterable<Worklog> getWorklogs() {
+        return worklogs.get();
+    }
+
+    @Nullable
+    @Override
+    public BasicWatchers getWatchers() {
+        return watchers.get();
+    }
+
+    @Nullable
+    @Override
+    public Iterable<Version> getFixVersions() {
+        return fixVersions.get();
+    }
+
+    @Nullable
+    @Override
+    public Iterable<Version> getAffectedVersions() {
+        return affectedVersions.get();
+    }
+
+    @Override
+    public Iterable<BasicComponent> getComponents() {
+        return components.get();
+    }
+
+    @Override
+    public Set<String> getLabels() {
+        return labels.get();
+    }
+
+    @Nullable
+    @Override
+    public Iterable<ChangelogGroup> getChangelog() {
+        return changelog.get();
+    }
+
+    @Nullable
+    @Override
+    public Operations getOperations() {
+        return operations.get();
+    }
+
+    @Nullable
+    @Override
+    public TimeTracking getTimeTracking() {
+        return timeTracking.get();
+    }
+
+    private static <T> Supplier<T> lazily(final Section<T> section) {
+        return Suppliers.memoize(new Supplier<T>() {
+            @Override
+            public T get() {
+                try {
+                    return section.parse();
+                } catch (JSONException e) {
+                    throw new RestClientException(e);
+                }
+            }
+        });
+    }
+
+    private interface Section<T> {
+        T parse() throws JSONException;
+    }
+}
@@ -23,9 +23,30 @@ import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 public class SearchResultJsonParser implements JsonObjectParser<SearchResult> {
 
+    /**
+     * Number of issues decoded by a single task when issues are decoded in parallel.
+     */
+    static final int PARALLEL_CHUNK_SIZE = 32;
+
+    private final IssueParsingOptions options;
+
+    public SearchResultJsonParser() {
+        this(IssueParsingOptions.DEFAULT);
+    }
+
+    /**
+     * @param options how the issues are decoded; without an interner of their own, the reference entities of the
+     *                issues are shared within a single response
+     * @since v5.1
+     */
+    public SearchResultJsonParser(final IssueParsingOptions options) {
+        this.options = options;
+    }
+
     @Override
     public SearchResult parse(JSONObject json) throws JSONException {
         final int startAt = json.getInt("startAt");
@@ -35,12 +56,31 @@ public class SearchResultJsonParser implements JsonObjectParser<SearchResult> {
 
         final Iterable<Issue> issues;
         if (issuesJsonArray.length() > 0) {
-            final IssueJsonParser issueParser = new IssueJsonParser(json.getJSONObject("names"), json.getJSONObject("schema"));
-            final GenericJsonArrayParser<Issue> issuesParser = GenericJsonArrayParser.create(issueParser);
+            final IssueFieldMetadata fieldMetadata = IssueFieldMetadata.parse(json.getJSONObject("names"), json.getJSONObject("schema"));
+            final IssueJsonParser issueParser = new IssueJsonParser(fieldMetadata, options.getInterner() != null
+                    ? options : options.withInterner(EntityInterner.forResponse()));
+            final ForkJoinPool decodingPool = options.getDecodingPool();
+            final GenericJsonArrayParser<Issue> issuesParser = decodingPool != null
+                    ? GenericJsonArrayParser.parallel(issueParser, decodingPool, PARALLEL_CHUNK_SIZE)
+                    : GenericJsonArrayParser.create(issueParser);
             issues = issuesParser.parse(issuesJsonArray);
         } else {
             issues = Collections.emptyList();
         }
         return new SearchResult(startAt, maxResults, total, issues);
     }
+
+    /**
+     * Parsers with equal options read a response the same way, so that concurrent identical searches, projected
+     * ones included, can share a single request.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof SearchResultJsonParser && options.equals(((SearchResultJsonParser) obj).options);
+    }
+
+    @Override
+    public int hashCode() {
+        return options.hashCode();
+    }
 }
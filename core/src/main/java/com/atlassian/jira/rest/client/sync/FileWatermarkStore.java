@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.sync;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores watermarks in a local properties file. The file is rewritten atomically on every update, so a crash
+ * in the middle of a run leaves the previous watermarks intact.
+ *
+ * @since v5.1
+ */
+public class FileWatermarkStore implements WatermarkStore {
+
+    private static final String UPDATED_SUFFIX = ".updated";
+    private static final String RECENT_SUFFIX = ".recent";
+
+    private final Path path;
+
+    public FileWatermarkStore(final File file) {
+        this.path = file.toPath();
+    }
+
+    @Nullable
+    @Override
+    public synchronized Watermark load(final String jql) {
+        final Properties properties = read();
+        final String updated = properties.getProperty(jql + UPDATED_SUFFIX);
+        if (updated == null) {
+            return null;
+        }
+        final Map<Long, Long> recent = Maps.newHashMap();
+        final String recentValue = properties.getProperty(jql + RECENT_SUFFIX, "");
+        for (Map.Entry<String, String> entry : Splitter.on(',').omitEmptyStrings()
+                .withKeyValueSeparator(":").split(recentValue).entrySet()) {
+            recent.put(Long.valueOf(entry.getKey()), Long.valueOf(entry.getValue()));
+        }
+        return new Watermark(new DateTime(Long.parseLong(updated)), recent);
+    }
+
+    @Override
+    public synchronized void store(final String jql, final Watermark watermark) {
+        final Properties properties = read();
+        properties.setProperty(jql + UPDATED_SUFFIX, String.valueOf(watermark.getUpdated().getMillis()));
+        properties.setProperty(jql + RECENT_SUFFIX, Joiner.on(',').withKeyValueSeparator(":")
+                .join(watermark.getRecentlyDelivered()));
+        try {
+            final Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            final Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                properties.store(os, "JIRA REST Java Client issue sync watermarks");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write watermarks to " + path, e);
+        }
+    }
+
+    private Properties read() {
+        final Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (InputStream is = Files.newInputStream(path)) {
+                properties.load(is);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read watermarks from " + path, e);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.sync;
+
+import com.atlassian.jira.rest.client.api.SearchRestClient;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.IssueFieldId;
+import com.atlassian.jira.rest.client.internal.JqlUtil;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally mirrors issues matching a JQL query by fetching only the issues updated since the previous run.
+ * <p>
+ * For every query a high-watermark of the newest {@link Issue#getUpdateDate()} delivered so far is kept in a
+ * {@link WatermarkStore}. The next run narrows the query down to <code>updated &gt;= watermark - overlap</code>.
+ * The overlap window absorbs the minute resolution of JQL dates, clock skew and issues which became visible to
+ * search with some delay. Issues fetched again because of the overlap are only delivered again when their update
+ * date changed, and every issue is delivered at most once per run even if it moves while the run is crawling.
+ * <p>
+ * JQL dates are interpreted by JIRA in the time zone of the authenticated user, which has to be given here.
+ *
+ * @since v5.1
+ */
+public class IssueDeltaSync {
+
+    private static final String JQL_DATE_PATTERN = "yyyy/MM/dd HH:mm";
+
+    private final SearchRestClient searchRestClient;
+    private final WatermarkStore watermarkStore;
+    private final Duration overlap;
+    private final DateTimeFormatter jqlDateFormatter;
+    private final int pageSize;
+
+    public IssueDeltaSync(final SearchRestClient searchRestClient, final WatermarkStore watermarkStore,
+                          final Duration overlap, final DateTimeZone jqlTimeZone, final int pageSize) {
+        Preconditions.checkArgument(!overlap.isShorterThan(Duration.ZERO), "overlap cannot be negative");
+        this.searchRestClient = searchRestClient;
+        this.watermarkStore = watermarkStore;
+        this.overlap = overlap;
+        this.jqlDateFormatter = DateTimeFormat.forPattern(JQL_DATE_PATTERN).withZone(jqlTimeZone);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Delivers all issues matching given query which were updated since the previous run for the same query
+     * (all matching issues on the first run) and advances the watermark once all of them were consumed.
+     * If the consumer throws, the watermark is left untouched and the next run fetches the same delta again.
+     *
+     * @param jql      a valid JQL query, also used as the key of the watermark
+     * @param fields   set of fields which should be retrieved, see {@link SearchRestClient#searchJql(String, Integer, Integer, Set)}
+     * @param consumer receives every new or changed issue
+     * @return number of issues delivered to the consumer
+     */
+    public int sync(final String jql, @Nullable final Set<String> fields, final Consumer<? super Issue> consumer) {
+        final WatermarkStore.Watermark previous = watermarkStore.load(jql);
+        final Map<Long, Long> previouslyDelivered = previous != null
+                ? previous.getRecentlyDelivered() : Maps.<Long, Long>newHashMap();
+        final Map<Long, Long> delivered = Maps.newHashMap();
+        final Set<Long> seen = Sets.newHashSet();
+        DateTime newest = previous != null ? previous.getUpdated() : null;
+        int count = 0;
+
+        for (Issue issue : searchRestClient.searchAllByKeyset(deltaJql(jql, previous), pageSize, withUpdated(fields))) {
+            if (!seen.add(issue.getId())) {
+                continue;
+            }
+            final long updated = issue.getUpdateDate().getMillis();
+            delivered.put(issue.getId(), updated);
+            if (newest == null || updated > newest.getMillis()) {
+                newest = issue.getUpdateDate();
+            }
+            final Long previousUpdate = previouslyDelivered.get(issue.getId());
+            if (previousUpdate != null && previousUpdate == updated) {
+                continue;
+            }
+            consumer.accept(issue);
+            count++;
+        }
+
+        if (newest != null) {
+            watermarkStore.store(jql, new WatermarkStore.Watermark(newest, withinOverlap(newest, previouslyDelivered, delivered)));
+        }
+        return count;
+    }
+
+    @VisibleForTesting
+    String deltaJql(final String jql, @Nullable final WatermarkStore.Watermark watermark) {
+        if (watermark == null) {
+            return jql;
+        }
+        final DateTime since = watermark.getUpdated().minus(overlap);
+        return JqlUtil.and(jql, "updated >= \"" + jqlDateFormatter.print(since) + "\"");
+    }
+
+    /**
+     * Only issues updated within the overlap window can be fetched again by the next run, older ones are forgotten
+     * to keep the stored state small.
+     */
+    private Map<Long, Long> withinOverlap(final DateTime newest, final Map<Long, Long> previouslyDelivered,
+                                          final Map<Long, Long> delivered) {
+        // JQL dates have minute resolution, so the next run may reach up to one minute further back
+        final long threshold = newest.minus(overlap).minusMinutes(1).getMillis();
+        final Map<Long, Long> res = Maps.newHashMap();
+        for (Map<Long, Long> source : Arrays.asList(previouslyDelivered, delivered)) {
+            for (Map.Entry<Long, Long> entry : source.entrySet()) {
+                if (entry.getValue() >= threshold) {
+                    res.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return res;
+    }
+
+    @Nullable
+    private static Set<String> withUpdated(@Nullable final Set<String> fields) {
+        if (fields == null || fields.contains(IssueFieldId.UPDATED_FIELD.id)) {
+            return fields;
+        }
+        return ImmutableSet.<String>builder().addAll(fields).add(IssueFieldId.UPDATED_FIELD.id).build();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.sync;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Keeps the progress of {@link IssueDeltaSync} between runs, one watermark per JQL query.
+ *
+ * @since v5.1
+ */
+public interface WatermarkStore {
+
+    @Nullable
+    Watermark load(String jql);
+
+    void store(String jql, Watermark watermark);
+
+    /**
+     * The newest "updated" date seen for a query, together with the issues delivered close to it. The latter
+     * are used to recognize issues which are fetched again because of the overlap window and did not change since.
+     */
+    class Watermark {
+        private final DateTime updated;
+        private final Map<Long, Long> recentlyDelivered;
+
+        /**
+         * @param updated           newest update date of the delivered issues
+         * @param recentlyDelivered ids of issues delivered within the overlap window mapped to their update date
+         *                          (in milliseconds since epoch) at the time of delivery
+         */
+        public Watermark(final DateTime updated, final Map<Long, Long> recentlyDelivered) {
+            this.updated = updated;
+            this.recentlyDelivered = ImmutableMap.copyOf(recentlyDelivered);
+        }
+
+        public DateTime getUpdated() {
+            return updated;
+        }
+
+        public Map<Long, Long> getRecentlyDelivered() {
+            return recentlyDelivered;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Watermark) {
+                final Watermark that = (Watermark) obj;
+                return this.updated.getMillis() == that.updated.getMillis()
+                        && Objects.equal(this.recentlyDelivered, that.recentlyDelivered);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(updated.getMillis(), recentlyDelivered);
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("updated", updated)
+                    .add("recentlyDelivered", recentlyDelivered)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.jdk;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultRequest;
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.DefaultResponseTransformation;
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.atlassian.httpclient.api.ResponseTransformation;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Transport sending requests with the {@link java.net.http.HttpClient} of the JDK, which multiplexes concurrent
+ * requests to a server over a single HTTP/2 connection where the server supports it and falls back to HTTP/1.1
+ * otherwise. Plug it in with
+ * {@link com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory.Builder#transport(HttpClient)}.
+ * <p>
+ * Responses are completed on the executor of the JDK client. The transport does not cache responses, so
+ * {@link #flushCacheByUriPattern(Pattern)} does nothing.
+ *
+ * @since v5.1
+ */
+public class JdkHttpTransport implements HttpClient {
+
+    /**
+     * Same as the default of the Apache HttpComponents based client.
+     */
+    static final long MAX_ENTITY_SIZE = 100 * 1024 * 1024;
+
+    /**
+     * Headers set by the JDK client itself, which it refuses to take from the caller.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = ImmutableSet.of("connection", "content-length", "expect",
+            "host", "upgrade");
+
+    private final java.net.http.HttpClient client;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a transport preferring HTTP/2, following no redirects, with a timeout of 30 seconds to connect and
+     * of 60 seconds for every request.
+     */
+    public JdkHttpTransport() {
+        this(java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build(), Duration.ofSeconds(60));
+    }
+
+    /**
+     * @param client         JDK client to send requests with, owned by the caller
+     * @param requestTimeout how long to wait for the headers of a response
+     */
+    public JdkHttpTransport(final java.net.http.HttpClient client, final Duration requestTimeout) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public Request.Builder newRequest() {
+        return new RequestBuilder(this);
+    }
+
+    @Override
+    public Request.Builder newRequest(final URI uri) {
+        return newRequest().setUri(uri);
+    }
+
+    @Override
+    public Request.Builder newRequest(final URI uri, final String contentType, final String entity) {
+        return newRequest(uri).setContentType(contentType).setEntity(entity);
+    }
+
+    @Override
+    public Request.Builder newRequest(final String uri) {
+        return newRequest(URI.create(uri));
+    }
+
+    @Override
+    public Request.Builder newRequest(final String uri, final String contentType, final String entity) {
+        return newRequest(URI.create(uri), contentType, entity);
+    }
+
+    @Override
+    public void flushCacheByUriPattern(final Pattern urlPattern) {
+    }
+
+    @Override
+    public <A> ResponseTransformation.Builder<A> transformation() {
+        return DefaultResponseTransformation.builder();
+    }
+
+    @Override
+    public ResponsePromise execute(final Request request) {
+        final SettableFuture<Response> response = SettableFuture.create();
+        final CompletableFuture<HttpResponse<InputStream>> exchange;
+        try {
+            exchange = client.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException e) {
+            response.setException(e);
+            return ResponsePromises.toResponsePromise(response);
+        }
+        exchange.whenComplete((httpResponse, failure) -> {
+            if (failure != null) {
+                response.setException(failure);
+            } else {
+                response.set(toResponse(httpResponse));
+            }
+        });
+        response.addListener(() -> {
+            if (response.isCancelled()) {
+                exchange.cancel(true);
+            }
+        }, MoreExecutors.directExecutor());
+        return ResponsePromises.toResponsePromise(response);
+    }
+
+    HttpRequest toHttpRequest(final Request request) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri()).timeout(requestTimeout);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.setHeader(header.getKey(), header.getValue());
+            }
+        }
+        if (request.getAccept() != null) {
+            builder.setHeader("Accept", request.getAccept());
+        }
+        if (request.getContentType() != null) {
+            builder.setHeader("Content-Type", request.getContentCharset() != null
+                    ? request.getContentType() + "; charset=" + request.getContentCharset()
+                    : request.getContentType());
+        }
+        return builder.method(request.getMethod().name(), toBodyPublisher(request)).build();
+    }
+
+    private static HttpRequest.BodyPublisher toBodyPublisher(final Request request) {
+        if (!request.hasEntity()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        // read upfront, so that the length of the body is known; the stream can be read only once, stages sending a
+        // request again pass a new request with a fresh stream of the body
+        try (InputStream entity = request.getEntityStream()) {
+            return HttpRequest.BodyPublishers.ofByteArray(entity.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Response toResponse(final HttpResponse<InputStream> httpResponse) {
+        final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : httpResponse.headers().map().entrySet()) {
+            if (!header.getKey().startsWith(":")) {
+                headers.put(header.getKey(), String.join(", ", header.getValue()));
+            }
+        }
+        return DefaultResponse.builder()
+                .setStatusCode(httpResponse.statusCode())
+                .setHeaders(headers)
+                .setEntityStream(httpResponse.body())
+                .setMaxEntitySize(MAX_ENTITY_SIZE)
+                .build();
+    }
+
+    private static class RequestBuilder extends DefaultRequest.DefaultRequestBuilder {
+        RequestBuilder(final HttpClient httpClient) {
+            super(httpClient);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.jdk;
+
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousHttpClientFactory;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import com.atlassian.jira.rest.client.internal.async.RetryPolicy;
+import com.google.common.collect.ImmutableList;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JdkHttpTransportTest {
+
+    private static final String SERVER_INFO = "{\"baseUrl\":\"http://localhost:2990/jira\",\"version\":\"7.1.10\","
+            + "\"buildNumber\":71011,\"buildDate\":\"2016-07-25T00:00:00.000+0000\",\"scmInfo\":\"abc\",\"serverTitle\":\"JIRA\"}";
+
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+    private final JdkHttpTransport transport = new JdkHttpTransport();
+    private HttpServer server;
+    private URI serverUri;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverThreads);
+        server.start();
+        serverUri = URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void testGetSendsHeadersAndReturnsResponse() {
+        server.createContext("/rest/api/latest/issue/TST-1", exchange -> {
+            exchange.getResponseHeaders().set("ETag", "\"42\"");
+            respond(exchange, 200, exchange.getRequestHeaders().getFirst("Accept") + " "
+                    + exchange.getRequestHeaders().getFirst("X-Atlassian-Token"));
+        });
+
+        final Response response = transport.newRequest(serverUri.resolve("/rest/api/latest/issue/TST-1"))
+                .setAccept("application/json")
+                .setHeader("X-Atlassian-Token", "no-check")
+                .get()
+                .claim();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("\"42\"", response.getHeader("etag"));
+        assertEquals("application/json no-check", response.getEntity());
+    }
+
+    @Test
+    public void testPostSendsEntityWithContentType() {
+        server.createContext("/rest/api/latest/issue", exchange -> respond(exchange, 201,
+                exchange.getRequestHeaders().getFirst("Content-Type") + " "
+                        + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+
+        final Response response = transport.newRequest(serverUri.resolve("/rest/api/latest/issue"),
+                "application/json", "{\"fields\":{}}").post().claim();
+
+        assertEquals(201, response.getStatusCode());
+        assertTrue(response.getEntity().startsWith("application/json"));
+        assertTrue(response.getEntity().endsWith(" {\"fields\":{}}"));
+    }
+
+    @Test
+    public void testErrorStatusIsReturnedAsResponse() {
+        server.createContext("/rest/api/latest/issue/TST-2", exchange -> respond(exchange, 404,
+                "{\"errorMessages\":[\"Issue Does Not Exist\"]}"));
+
+        final Response response = transport.newRequest(serverUri.resolve("/rest/api/latest/issue/TST-2")).get().claim();
+
+        assertEquals(404, response.getStatusCode());
+        assertEquals("{\"errorMessages\":[\"Issue Does Not Exist\"]}", response.getEntity());
+    }
+
+    @Test
+    public void testRetriedPutSendsBodyAgain() throws Exception {
+        final List<String> bodies = new CopyOnWriteArrayList<>();
+        server.createContext("/rest/api/latest/issue/TST-3", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, bodies.size() == 1 ? 503 : 200, "{}");
+        });
+        final DisposableHttpClient client = new AsynchronousHttpClientFactory()
+                .createClient(transport, null, null, ImmutableList.of(new RetryPolicy()));
+        try {
+            final Response response = client.newRequest(serverUri.resolve("/rest/api/latest/issue/TST-3"),
+                    "application/json", "{\"fields\":{\"summary\":\"Sent twice\"}}").put().claim();
+
+            assertEquals(200, response.getStatusCode());
+            assertEquals(Arrays.asList("{\"fields\":{\"summary\":\"Sent twice\"}}",
+                    "{\"fields\":{\"summary\":\"Sent twice\"}}"), bodies);
+        } finally {
+            client.destroy();
+        }
+    }
+
+    @Test
+    public void testClientSendsRequestsThroughTransport() throws Exception {
+        server.createContext("/rest/api/latest/serverInfo", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            respond(exchange, exchange.getRequestHeaders().containsKey("Authorization") ? 200 : 401, SERVER_INFO);
+        });
+
+        final JiraRestClient client = AsynchronousJiraRestClientFactory.builder()
+                .transport(transport)
+                .build()
+                .createWithBasicHttpAuthentication(serverUri, "admin", "admin");
+        try {
+            final ServerInfo serverInfo = client.getMetadataClient().getServerInfo().claim();
+
+            assertEquals("7.1.10", serverInfo.getVersion());
+            assertEquals(71011, serverInfo.getBuildNumber());
+        } finally {
+            client.close();
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.jdk;
+
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.factory.HttpClientOptions;
+import com.atlassian.jira.rest.client.auth.AnonymousAuthenticationHandler;
+import com.atlassian.jira.rest.client.internal.async.AsynchronousHttpClientFactory;
+import com.atlassian.jira.rest.client.internal.async.DisposableHttpClient;
+import com.google.common.util.concurrent.FutureCallback;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the same concurrent GET requests through the default (Apache HttpComponents) transport and through
+ * {@link JdkHttpTransport}, and prints the throughput and latency percentiles of both.
+ * <p>
+ * Usage: <code>TransportComparison [uri [requests [concurrency]]]</code>. Without a URI a local HTTP/1.1 server
+ * answering after 20 ms is started, which compares the overhead of the transports only; pass the URI of an
+ * anonymously readable resource of a JIRA server behind an HTTP/2 capable proxy, e.g.
+ * <code>https://jira.example.com/rest/api/2/serverInfo</code>, to see the effect of multiplexing.
+ */
+public class TransportComparison {
+
+    private static final int WARM_UP_REQUESTS = 200;
+    private static final long LOCAL_LATENCY_MILLIS = 20;
+
+    public static void main(final String[] args) throws Exception {
+        final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        final int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        HttpServer server = null;
+        final URI uri;
+        if (args.length > 0) {
+            uri = URI.create(args[0]);
+        } else {
+            server = startLocalServer();
+            uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/rest/api/2/serverInfo");
+        }
+        try {
+            final HttpClientOptions options = new HttpClientOptions();
+            options.setMaxConnectionsPerHost(concurrency);
+            options.setMaxTotalConnections(concurrency);
+            final DisposableHttpClient apache = new AsynchronousHttpClientFactory()
+                    .createClient(uri, new AnonymousAuthenticationHandler(), options, null);
+            try {
+                run("apache-httpcomponents", apache, uri, requests, concurrency);
+            } finally {
+                apache.destroy();
+            }
+            run("java.net.http", new JdkHttpTransport(), uri, requests, concurrency);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+
+    private static void run(final String name, final HttpClient transport, final URI uri, final int requests,
+                            final int concurrency) throws InterruptedException {
+        send(transport, uri, WARM_UP_REQUESTS, concurrency, new long[WARM_UP_REQUESTS]);
+        final long[] latencies = new long[requests];
+        final long start = System.nanoTime();
+        final int failures = send(transport, uri, requests, concurrency, latencies);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%-22s %8.0f req/s  p50 %6.1f ms  p99 %6.1f ms  failures %d%n", name, requests / seconds,
+                latencies[requests / 2] / 1e6, latencies[requests * 99 / 100] / 1e6, failures);
+    }
+
+    private static int send(final HttpClient transport, final URI uri, final int requests, final int concurrency,
+                            final long[] latencies) throws InterruptedException {
+        final Semaphore inFlight = new Semaphore(concurrency);
+        final CountDownLatch done = new CountDownLatch(requests);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            final int request = i;
+            final long sent = System.nanoTime();
+            transport.newRequest(uri).setAccept("application/json").get().then(new FutureCallback<Response>() {
+                @Override
+                public void onSuccess(final Response response) {
+                    // read the whole body, as the client does before parsing it
+                    response.getEntity();
+                    if (response.getStatusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    complete();
+                }
+
+                @Override
+                public void onFailure(final Throwable t) {
+                    failures.incrementAndGet();
+                    complete();
+                }
+
+                private void complete() {
+                    latencies[request] = System.nanoTime() - sent;
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await(10, TimeUnit.MINUTES);
+        return failures.get();
+    }
+
+    private static HttpServer startLocalServer() throws Exception {
+        final byte[] body = ("{\"baseUrl\":\"http://localhost:2990/jira\",\"version\":\"7.1.10\",\"buildNumber\":71011,"
+                + "\"buildDate\":\"2016-07-25T00:00:00.000+0000\",\"scmInfo\":\"abc\",\"serverTitle\":\"JIRA\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        final ExecutorService threads = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "transport-comparison-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(threads);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(LOCAL_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.api.domain;
+
+import com.atlassian.jira.rest.client.TestUtil;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IssueFieldIndexTest {
+    private static final IssueField SUMMARY = new IssueField("summary", "Summary", "string", "Title");
+    private static final IssueField RADIO = new IssueField("customfield_10001", "My Radio buttons", "option", "One");
+    private static final IssueField UNKNOWN = new IssueField("customfield_99999", "Unknown", "string", null);
+
+    private final IssueFieldIndex index = new IssueFieldIndex(ImmutableMap.of(
+            "customfield_10001", "My Radio buttons", "summary", "Summary", "description", "Description"));
+
+    @Test
+    public void testFieldsKeepOrderOfResponse() {
+        final Collection<IssueField> fields = index.newFieldsBuilder().add(SUMMARY).add(UNKNOWN).add(RADIO).build();
+
+        assertEquals(ImmutableList.of(SUMMARY, UNKNOWN, RADIO), ImmutableList.copyOf(fields));
+    }
+
+    @Test
+    public void testEquals() {
+        final Collection<IssueField> fields = index.newFieldsBuilder().add(SUMMARY).add(RADIO).build();
+
+        TestUtil.assertEqualsSymmetrical(fields, index.newFieldsBuilder().add(SUMMARY).add(RADIO).build());
+        TestUtil.assertEqualsSymmetrical(fields, ImmutableList.of(SUMMARY, RADIO));
+        Assert.assertEquals(ImmutableList.of(SUMMARY, RADIO).hashCode(), fields.hashCode());
+        TestUtil.assertNotEquals(fields, index.newFieldsBuilder().add(RADIO).add(SUMMARY).build());
+    }
+
+    @Test
+    public void testLookUpByIdAndName() {
+        final IssueFieldIndex.IndexedFields fields = index.newFieldsBuilder().add(SUMMARY).add(UNKNOWN).add(RADIO).build();
+
+        assertSame(RADIO, fields.getById("customfield_10001"));
+        assertSame(RADIO, fields.getByName("My Radio buttons"));
+        assertSame(UNKNOWN, fields.getById("customfield_99999"));
+        assertNull(fields.getById("description"));
+        assertNull(fields.getByName("Description"));
+    }
+
+    @Test
+    public void testLookUpByNameReturnsFirstFieldOfResponse() {
+        final IssueFieldIndex sharedNames = new IssueFieldIndex(ImmutableMap.of(
+                "customfield_10001", "Team", "customfield_10002", "Team"));
+        final IssueField first = new IssueField("customfield_10002", "Team", "string", "Core");
+        final IssueField second = new IssueField("customfield_10001", "Team", "string", "Platform");
+        final IssueField unknown = new IssueField("customfield_99999", "Team", "string", "Unknown");
+
+        assertSame(first, sharedNames.newFieldsBuilder().add(first).add(second).build().getByName("Team"));
+        assertSame(second, sharedNames.newFieldsBuilder().add(second).add(first).build().getByName("Team"));
+        assertSame(unknown, sharedNames.newFieldsBuilder().add(unknown).add(first).build().getByName("Team"));
+        assertSame(first, sharedNames.newFieldsBuilder().add(first).add(unknown).build().getByName("Team"));
+    }
+
+    @Test
+    public void testFieldAddedAgainReplacesFirstOne() {
+        final IssueField renamed = new IssueField("summary", "Summary", "string", "New title");
+        final IssueFieldIndex.IndexedFields fields = index.newFieldsBuilder().add(SUMMARY).add(RADIO).add(renamed)
+                .build();
+
+        assertEquals(ImmutableList.of(renamed, RADIO), ImmutableList.copyOf(fields));
+        assertSame(renamed, fields.getById("summary"));
+        assertSame(RADIO, fields.getByName("My Radio buttons"));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JqlUtilTest {
+
+    @Test
+    public void testStripOrderBy() {
+        assertEquals("project = TST", JqlUtil.stripOrderBy("project = TST order by key DESC"));
+        assertEquals("project = TST", JqlUtil.stripOrderBy("project = TST\nORDER\tBY created"));
+        assertEquals("", JqlUtil.stripOrderBy("ORDER BY id"));
+        assertEquals("", JqlUtil.stripOrderBy(null));
+        assertEquals("reorder = by", JqlUtil.stripOrderBy("reorder = by"));
+        assertEquals("summary ~ \"order\"", JqlUtil.stripOrderBy("summary ~ \"order\""));
+    }
+
+    @Test
+    public void testStripOrderByKeepsQuotedOrderBy() {
+        assertEquals("summary ~ \"order by date\"", JqlUtil.stripOrderBy("summary ~ \"order by date\""));
+        assertEquals("summary ~ 'order by date'", JqlUtil.stripOrderBy("summary ~ 'order by date' ORDER BY key"));
+        assertEquals("summary ~ \"say \\\"order by\\\" twice\"",
+                JqlUtil.stripOrderBy("summary ~ \"say \\\"order by\\\" twice\" order by key"));
+        assertEquals("summary ~ \"it's\" AND text ~ \"order by\"",
+                JqlUtil.stripOrderBy("summary ~ \"it's\" AND text ~ \"order by\" order by key"));
+    }
+
+    @Test
+    public void testAnd() {
+        assertEquals("(summary ~ \"order by date\") AND id > 5",
+                JqlUtil.and("summary ~ \"order by date\" ORDER BY key", "id > 5"));
+        assertEquals("id > 5", JqlUtil.and(" order by key", "id > 5"));
+        assertEquals("id > 5", JqlUtil.and(null, "id > 5"));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final List<SettableFuture<Response>> sent = new ArrayList<>();
+
+    private final RequestStage.Next transport = () -> {
+        final SettableFuture<Response> response = SettableFuture.create();
+        sent.add(response);
+        return ResponsePromises.toResponsePromise(response);
+    };
+
+    @Test
+    public void testRequestsOverLimitAreQueuedAndSentInOrder() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 2, 10, 1, TimeUnit.MINUTES);
+        final List<ResponsePromise> promises = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            promises.add(limiter.execute(null, transport, null));
+        }
+        assertEquals(2, sent.size());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(2, limiter.getQueueLength());
+
+        sent.get(0).set(null);
+        assertEquals(3, sent.size());
+        assertEquals(1, limiter.getQueueLength());
+
+        sent.get(2).set(null);
+        assertTrue(promises.get(2).isDone());
+        assertFalse(promises.get(3).isDone());
+        assertEquals(4, sent.size());
+        assertEquals(0, limiter.getQueueLength());
+    }
+
+    @Test
+    public void testRequestsAreRejectedWhenQueueIsFull() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, 1, TimeUnit.MINUTES);
+        limiter.execute(null, transport, null);
+        limiter.execute(null, transport, null);
+        final ResponsePromise rejected = limiter.execute(null, transport, null);
+
+        assertTrue(rejected.isDone());
+        try {
+            rejected.get();
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(1, sent.size());
+        assertEquals(1, limiter.getRejectedRequests());
+    }
+
+    @Test
+    public void testLimitGrowsWithSuccessesAndShrinksOnFailures() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 100, 0, 1, TimeUnit.MINUTES);
+        limiter.execute(null, transport, null);
+        sent.get(0).set(null);
+        assertEquals(2, limiter.getLimit());
+
+        for (int i = 0; i < 40; i++) {
+            limiter.execute(null, transport, null);
+            sent.get(sent.size() - 1).set(null);
+        }
+        final int grownLimit = limiter.getLimit();
+        assertTrue(grownLimit > 2);
+
+        limiter.execute(null, transport, null);
+        sent.get(sent.size() - 1).setException(new IllegalStateException("connection reset"));
+        assertTrue(limiter.getLimit() < grownLimit);
+    }
+
+    @Test
+    public void testCancelledQueuedRequestIsNeverSent() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 1, TimeUnit.MINUTES);
+        limiter.execute(null, transport, null);
+        final ResponsePromise queued = limiter.execute(null, transport, null);
+        assertEquals(1, limiter.getQueueLength());
+
+        queued.cancel(true);
+        assertEquals(0, limiter.getQueueLength());
+        sent.get(0).set(null);
+        assertEquals(1, sent.size());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsynchronousHttpClientFactoryTest {
+
+    private static final String SERVER_INFO_URI = "http://localhost:8090/jira/rest/api/latest/serverInfo";
+
+    private final List<ScheduledExecutorService> schedulers = new ArrayList<>();
+    private final RequestStage stage = (request, next, scheduler) -> {
+        schedulers.add(scheduler);
+        return next.get();
+    };
+    private final StubHttpClient transport = new StubHttpClient();
+
+    @Test
+    public void testDestroyShutsDownSchedulerOfStages() throws Exception {
+        final DisposableHttpClient client = new AsynchronousHttpClientFactory()
+                .createClient(transport, null, null, ImmutableList.of(stage));
+
+        client.newRequest(SERVER_INFO_URI).get();
+        client.newRequest(SERVER_INFO_URI).get();
+        assertEquals(2, transport.getRequests().size());
+        assertSame(schedulers.get(0), schedulers.get(1));
+        assertFalse(schedulers.get(0).isShutdown());
+
+        client.destroy();
+        assertTrue(schedulers.get(0).isShutdown());
+    }
+
+    @Test
+    public void testClientsSharingStagesHaveOwnSchedulers() throws Exception {
+        final AsynchronousHttpClientFactory factory = new AsynchronousHttpClientFactory();
+        final DisposableHttpClient first = factory.createClient(transport, null, null, ImmutableList.of(stage));
+        final DisposableHttpClient second = factory.createClient(transport, null, null, ImmutableList.of(stage));
+
+        first.newRequest(SERVER_INFO_URI).get();
+        second.newRequest(SERVER_INFO_URI).get();
+        assertNotSame(schedulers.get(0), schedulers.get(1));
+
+        first.destroy();
+        assertTrue(schedulers.get(0).isShutdown());
+        assertFalse(schedulers.get(1).isShutdown());
+        second.destroy();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.Comment;
+import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.api.domain.Session;
+import com.atlassian.jira.rest.client.internal.ServerVersionConstants;
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsynchronousIssueRestClientTest {
+
+    private static final URI BASE_URI = URI.create("http://localhost:8090/jira/rest/api/latest");
+    private static final URI COMMENTS_URI = URI.create("http://localhost:8090/jira/rest/api/latest/issue/TST-1/comment");
+    private static final URI WATCHERS_URI = URI.create("http://localhost:8090/jira/rest/api/latest/issue/TST-1/watchers");
+
+    private final StubHttpClient httpClient = new StubHttpClient();
+    private final StubMetadataRestClient metadataClient = new StubMetadataRestClient();
+    private final Deque<Promise<Session>> sessions = new ArrayDeque<>();
+    private int sessionRequests;
+    private final AsynchronousIssueRestClient issueClient = new AsynchronousIssueRestClient(BASE_URI, httpClient, () -> {
+        sessionRequests++;
+        return sessions.remove();
+    }, metadataClient);
+
+    @Test
+    public void testWriteWaitsForServerInfoWithoutBlocking() {
+        final SettableFuture<ServerInfo> serverInfo = SettableFuture.create();
+        metadataClient.serverInfos.add(Promises.forListenableFuture(serverInfo));
+
+        final Promise<Void> added = issueClient.addComment(COMMENTS_URI, Comment.valueOf("Looks good"));
+        assertFalse(added.isDone());
+        assertTrue(httpClient.getRequests().isEmpty());
+
+        serverInfo.set(serverInfo());
+        assertEquals(1, httpClient.getRequests().size());
+        assertEquals(COMMENTS_URI, httpClient.getRequests().get(0).getUri());
+        httpClient.respond(0, 201);
+        added.claim();
+    }
+
+    @Test
+    public void testConcurrentWritesShareServerInfoFetch() {
+        final SettableFuture<ServerInfo> serverInfo = SettableFuture.create();
+        metadataClient.serverInfos.add(Promises.forListenableFuture(serverInfo));
+
+        issueClient.addComment(COMMENTS_URI, Comment.valueOf("first"));
+        issueClient.addComment(COMMENTS_URI, Comment.valueOf("second"));
+        issueClient.removeWatcher(WATCHERS_URI, "fred");
+        assertEquals(1, metadataClient.serverInfoRequests);
+
+        serverInfo.set(serverInfo());
+        assertEquals(3, httpClient.getRequests().size());
+        assertEquals("username=fred", httpClient.getRequests().get(2).getUri().getQuery());
+        issueClient.addComment(COMMENTS_URI, Comment.valueOf("third"));
+        assertEquals(1, metadataClient.serverInfoRequests);
+    }
+
+    @Test
+    public void testCancelledWriteLeavesServerInfoFetchToOthers() {
+        final SettableFuture<ServerInfo> serverInfo = SettableFuture.create();
+        metadataClient.serverInfos.add(Promises.forListenableFuture(serverInfo));
+
+        final Promise<Void> cancelled = issueClient.addComment(COMMENTS_URI, Comment.valueOf("first"));
+        final Promise<Void> added = issueClient.addComment(COMMENTS_URI, Comment.valueOf("second"));
+        assertTrue(cancelled.cancel(true));
+        assertFalse(serverInfo.isCancelled());
+
+        serverInfo.set(serverInfo());
+        assertEquals(1, httpClient.getRequests().size());
+        httpClient.respond(0, 201);
+        added.claim();
+        assertEquals(1, metadataClient.serverInfoRequests);
+    }
+
+    @Test
+    public void testFailedServerInfoFetchIsRetried() {
+        metadataClient.serverInfos.add(Promises.<ServerInfo>rejected(new RestClientException("Service Unavailable", null)));
+        metadataClient.serverInfos.add(Promises.promise(serverInfo()));
+
+        try {
+            issueClient.addComment(COMMENTS_URI, Comment.valueOf("first")).claim();
+            fail("RestClientException expected");
+        } catch (RestClientException expected) {
+            assertTrue(httpClient.getRequests().isEmpty());
+        }
+        issueClient.addComment(COMMENTS_URI, Comment.valueOf("second"));
+        assertEquals(1, httpClient.getRequests().size());
+        assertEquals(2, metadataClient.serverInfoRequests);
+    }
+
+    @Test
+    public void testUnwatchFetchesUsernameOnce() {
+        metadataClient.serverInfos.add(Promises.promise(serverInfo()));
+        sessions.add(Promises.promise(session("fred")));
+
+        final Promise<Void> first = issueClient.unwatch(WATCHERS_URI);
+        final Promise<Void> second = issueClient.unwatch(WATCHERS_URI);
+        httpClient.respond(0, 204);
+        httpClient.respond(1, 204);
+        first.claim();
+        second.claim();
+
+        assertEquals(1, sessionRequests);
+        assertEquals("username=fred", httpClient.getRequests().get(1).getUri().getQuery());
+    }
+
+    @Test
+    public void testCancelledUnwatchLeavesUsernameFetchToOthers() {
+        metadataClient.serverInfos.add(Promises.promise(serverInfo()));
+        final SettableFuture<Session> session = SettableFuture.create();
+        sessions.add(Promises.forListenableFuture(session));
+
+        final Promise<Void> cancelled = issueClient.unwatch(WATCHERS_URI);
+        final Promise<Void> unwatched = issueClient.unwatch(WATCHERS_URI);
+        assertTrue(cancelled.cancel(true));
+        assertFalse(session.isCancelled());
+
+        session.set(session("fred"));
+        assertEquals(1, httpClient.getRequests().size());
+        assertEquals("username=fred", httpClient.getRequests().get(0).getUri().getQuery());
+        httpClient.respond(0, 204);
+        unwatched.claim();
+        assertEquals(1, sessionRequests);
+    }
+
+    @Test
+    public void testUnwatchFetchesUsernameAgainAfterUnauthorized() {
+        metadataClient.serverInfos.add(Promises.promise(serverInfo()));
+        sessions.add(Promises.promise(session("fred")));
+        sessions.add(Promises.promise(session("admin")));
+
+        final Promise<Void> rejected = issueClient.unwatch(WATCHERS_URI);
+        httpClient.respond(0, 401);
+        try {
+            rejected.claim();
+            fail("RestClientException expected");
+        } catch (RestClientException expected) {
+            assertEquals(401, (int) expected.getStatusCode().get());
+        }
+
+        final Promise<Void> unwatched = issueClient.unwatch(WATCHERS_URI);
+        httpClient.respond(1, 204);
+        unwatched.claim();
+        assertEquals(2, sessionRequests);
+        assertEquals("username=admin", httpClient.getRequests().get(1).getUri().getQuery());
+    }
+
+    private static Session session(final String username) {
+        return new Session(URI.create("http://localhost:8090/jira/rest/api/latest/user?username=" + username), username,
+                null);
+    }
+
+    private static ServerInfo serverInfo() {
+        return new ServerInfo(URI.create("http://localhost:8090/jira"), "7.2.0", ServerVersionConstants.BN_JIRA_7_2,
+                null, null, null, "JIRA");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.factory.HttpClientOptions;
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.MetadataRestClient;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsynchronousJiraRestClientFactoryTest {
+
+    private static final URI SERVER_URI = URI.create("http://localhost:8090/jira");
+
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBuilderAppliesTransportOptions() {
+        final HttpClientOptions options = AsynchronousJiraRestClientFactory.builder()
+                .maxConnectionsPerHost(50)
+                .maxTotalConnections(200)
+                .socketTimeout(2, TimeUnit.MINUTES)
+                .buildHttpClientOptions();
+
+        assertEquals(50, options.getMaxConnectionsPerHost());
+        assertEquals(200, options.getMaxTotalConnections());
+        assertEquals(TimeUnit.MINUTES.toMillis(2), options.getSocketTimeout());
+    }
+
+    @Test
+    public void testBuilderKeepsDefaultsOfUnsetOptions() {
+        final HttpClientOptions defaults = new HttpClientOptions();
+        final HttpClientOptions options = AsynchronousJiraRestClientFactory.builder().buildHttpClientOptions();
+
+        assertEquals(defaults.getMaxConnectionsPerHost(), options.getMaxConnectionsPerHost());
+        assertEquals(defaults.getMaxTotalConnections(), options.getMaxTotalConnections());
+        assertEquals(defaults.getSocketTimeout(), options.getSocketTimeout());
+    }
+
+    @Test
+    public void testBuilderRejectsNonPositiveConnectionLimit() {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("maxConnectionsPerHost must be positive");
+        AsynchronousJiraRestClientFactory.builder().maxConnectionsPerHost(0);
+    }
+
+    @Test
+    public void testBuilderRejectsTimeoutOverflowingMilliseconds() {
+        exception.expect(IllegalArgumentException.class);
+        AsynchronousJiraRestClientFactory.builder().requestTimeout(30, TimeUnit.DAYS);
+    }
+
+    @Test
+    public void testBuilderWrapsMetadataClientInCache() throws Exception {
+        final StubHttpClient transport = new StubHttpClient();
+        try (JiraRestClient client = AsynchronousJiraRestClientFactory.builder()
+                .metadataCache(10, TimeUnit.MINUTES)
+                .build()
+                .create(SERVER_URI, transport)) {
+            final MetadataRestClient metadataClient = client.getMetadataClient();
+            assertTrue(metadataClient instanceof CachingMetadataRestClient);
+
+            metadataClient.getStatuses();
+            metadataClient.getStatuses();
+            assertEquals(1, transport.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testMetadataIsNotCachedByDefault() throws Exception {
+        try (JiraRestClient client = new AsynchronousJiraRestClientFactory().create(SERVER_URI, new StubHttpClient())) {
+            assertFalse(client.getMetadataClient() instanceof CachingMetadataRestClient);
+        }
+    }
+}
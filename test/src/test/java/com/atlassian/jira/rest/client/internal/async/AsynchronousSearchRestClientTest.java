@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+
+public class AsynchronousSearchRestClientTest {
+
+    private static final URI BASE_URI = URI.create("http://localhost:8090/jira/rest/api/latest");
+
+    private final StubHttpClient httpClient = new StubHttpClient();
+    private final AsynchronousSearchRestClient searchClient = new AsynchronousSearchRestClient(BASE_URI, httpClient);
+
+    @Test
+    public void testIdenticalProjectedSearchesShareRequest() {
+        searchClient.searchJql("project = TST", 50, 0, ImmutableSet.of("summary", "status"));
+        searchClient.searchJql("project = TST", 50, 0, ImmutableSet.of("summary", "status"));
+
+        assertEquals(1, httpClient.getRequests().size());
+    }
+
+    @Test
+    public void testSearchesOfDifferentFieldsAreNotShared() {
+        searchClient.searchJql("project = TST", 50, 0, ImmutableSet.of("summary"));
+        searchClient.searchJql("project = TST", 50, 0, ImmutableSet.of("summary", "status"));
+        searchClient.searchJql("project = TST", 50, 0, null);
+
+        assertEquals(3, httpClient.getRequests().size());
+    }
+}
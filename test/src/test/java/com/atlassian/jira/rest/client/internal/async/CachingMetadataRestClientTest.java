@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.api.domain.Status;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CachingMetadataRestClientTest {
+
+    private static final Status OPEN = status(1, "Open");
+    private static final Status CLOSED = status(6, "Closed");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final StubMetadataRestClient delegate = new StubMetadataRestClient();
+    private final CachingMetadataRestClient metadataClient = CachingMetadataRestClient.builder(delegate)
+            .timeToLive(10, TimeUnit.MINUTES)
+            .timeToLive(CachingMetadataRestClient.Resource.SERVER_INFO, 1, TimeUnit.MINUTES)
+            .refreshAhead(0.5)
+            .ticker(ticker)
+            .build();
+
+    @Test
+    public void testStatusesAreFetchedOnceAndIndexed() {
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN, CLOSED)));
+
+        assertEquals(2, Iterables.size(metadataClient.getStatuses().claim()));
+        final MetadataIndex<Long, Status> index = metadataClient.getStatusIndex().claim();
+        assertSame(CLOSED, index.byId(6L));
+        assertSame(OPEN, index.byName("OPEN"));
+        assertNull(index.byName("Reopened"));
+        assertSame(OPEN, metadataClient.getStatus(OPEN.getSelf()).claim());
+        assertEquals(1, delegate.statusRequests);
+    }
+
+    @Test
+    public void testStatusesAreRefreshedAheadOfExpiry() {
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN)));
+        final SettableFuture<Iterable<Status>> refreshed = SettableFuture.create();
+        delegate.statuses.add(Promises.forListenableFuture(refreshed));
+        metadataClient.getStatuses().claim();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        // served at once while the refresh is in flight
+        assertEquals(1, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(1, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(2, delegate.statusRequests);
+
+        refreshed.set(ImmutableList.of(OPEN, CLOSED));
+        assertEquals(2, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(2, delegate.statusRequests);
+    }
+
+    @Test
+    public void testStaleStatusesAreServedWhenRefreshFails() {
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN)));
+        delegate.statuses.add(Promises.<Iterable<Status>>rejected(new RestClientException("Service Unavailable", null)));
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN, CLOSED)));
+        metadataClient.getStatuses().claim();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertEquals(1, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(2, delegate.statusRequests);
+        // the refresh is not tried again at once
+        assertEquals(1, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(2, delegate.statusRequests);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(2, Iterables.size(metadataClient.getStatuses().claim()));
+        assertEquals(3, delegate.statusRequests);
+    }
+
+    @Test
+    public void testResourcesHaveTheirOwnTimeToLive() {
+        delegate.serverInfos.add(Promises.promise(serverInfo("7.0.0")));
+        delegate.serverInfos.add(Promises.promise(serverInfo("7.1.0")));
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN)));
+        metadataClient.getStatuses().claim();
+        assertEquals("7.0.0", metadataClient.getServerInfo().claim().getVersion());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals("7.1.0", metadataClient.getServerInfo().claim().getVersion());
+        metadataClient.getStatuses().claim();
+        assertEquals(1, delegate.statusRequests);
+    }
+
+    @Test
+    public void testInvalidatedStatusesAreFetchedAgain() {
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN)));
+        delegate.statuses.add(Promises.<Iterable<Status>>promise(ImmutableList.of(OPEN, CLOSED)));
+        metadataClient.getStatuses().claim();
+
+        metadataClient.invalidateAll();
+
+        assertEquals(2, Iterables.size(metadataClient.getStatuses().claim()));
+        assertFalse(delegate.statuses.iterator().hasNext());
+    }
+
+    private static Status status(final long id, final String name) {
+        return new Status(URI.create("http://localhost:8090/jira/rest/api/2/status/" + id), id, name, null, null);
+    }
+
+    private static ServerInfo serverInfo(final String version) {
+        return new ServerInfo(URI.create("http://localhost:8090/jira"), version, 1, null, null, null, "JIRA");
+    }
+}
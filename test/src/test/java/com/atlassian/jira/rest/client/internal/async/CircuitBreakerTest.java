@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Futures;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final List<String> transitions = new ArrayList<>();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 0.5, 0.5, 1, 10, TimeUnit.SECONDS, 2, ticker);
+
+    {
+        circuitBreaker.addListener((endpoint, from, to) -> transitions.add(endpoint + ": " + from + " -> " + to));
+    }
+
+    @Test
+    public void testCircuitOpensOnFailureRateAndFailsFast() throws Exception {
+        call("search", 200);
+        call("search", 500);
+        call("search", 200);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("search"));
+        call("search", 503);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("search"));
+
+        final AtomicInteger sent = new AtomicInteger();
+        final ResponsePromise rejected = circuitBreaker.execute("search", () -> {
+            sent.incrementAndGet();
+            return respond(200);
+        });
+        try {
+            rejected.get();
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(0, sent.get());
+        // other endpoints are not affected
+        assertEquals(200, call("issue/{}", 200));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("issue/{}"));
+    }
+
+    @Test
+    public void testCircuitOpensOnSlowCalls() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.execute("issue/createmeta", () -> {
+                nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+                return respond(200);
+            });
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("issue/createmeta"));
+    }
+
+    @Test
+    public void testHalfOpenCircuitClosesAfterSuccessfulTrials() throws Exception {
+        openSearchCircuit();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(200, call("search", 200));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState("search"));
+        assertEquals(200, call("search", 200));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("search"));
+        assertEquals(3, transitions.size());
+        assertEquals("search: HALF_OPEN -> CLOSED", transitions.get(2));
+    }
+
+    @Test
+    public void testHalfOpenCircuitOpensAgainOnFailedTrial() throws Exception {
+        openSearchCircuit();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(502, call("search", 502));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("search"));
+        assertEquals("search: CLOSED -> OPEN", transitions.get(0));
+        assertEquals("search: OPEN -> HALF_OPEN", transitions.get(1));
+        assertEquals("search: HALF_OPEN -> OPEN", transitions.get(2));
+    }
+
+    @Test
+    public void testEndpointTemplates() {
+        assertEquals("issue/{}/comment", Endpoints.template(URI.create("http://localhost/jira/rest/api/2/issue/TST-1/comment")));
+        assertEquals("issue/{}", Endpoints.template(URI.create("http://localhost/jira/rest/api/2/issue/10000?expand=names")));
+        assertEquals("issue/createmeta", Endpoints.template(URI.create("http://localhost/jira/rest/api/latest/issue/createmeta")));
+        assertEquals("project/{}", Endpoints.template(URI.create("http://localhost/jira/rest/api/2/project/TST")));
+        assertEquals("search", Endpoints.template(URI.create("http://localhost/jira/rest/api/2/search")));
+        assertEquals(Endpoints.NON_REST, Endpoints.template(URI.create("http://localhost/jira/secure/attachment/10000/report.pdf")));
+        assertEquals(Endpoints.NON_REST, Endpoints.template(URI.create("http://localhost/jira/secure/thumbnail/10001/_thumb_10001.png")));
+    }
+
+    private void openSearchCircuit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            call("search", 500);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("search"));
+    }
+
+    private int call(final String endpoint, final int statusCode) throws Exception {
+        return circuitBreaker.execute(endpoint, () -> respond(statusCode)).get().getStatusCode();
+    }
+
+    private static ResponsePromise respond(final int statusCode) {
+        return ResponsePromises.toResponsePromise(Futures.<Response>immediateFuture(
+                DefaultResponse.builder().setStatusCode(statusCode).build()));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HedgingPolicyTest {
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    @Test
+    public void testNoHedgingBeforeEnoughSamples() throws Exception {
+        final HedgingPolicy hedgingPolicy = new HedgingPolicy(0.9, 1, 1, TimeUnit.MILLISECONDS, scheduler);
+        final SettableFuture<Response> slow = SettableFuture.create();
+        final AtomicInteger sent = new AtomicInteger();
+
+        final ResponsePromise response = hedgingPolicy.execute("search", () -> {
+            sent.incrementAndGet();
+            return ResponsePromises.toResponsePromise(slow);
+        }, scheduler);
+        assertEquals(0, scheduler.getPendingTasks());
+        scheduler.advance(1, TimeUnit.SECONDS);
+
+        assertEquals(1, sent.get());
+        assertEquals(0, hedgingPolicy.getHedgedRequests());
+        slow.set(DefaultResponse.builder().setStatusCode(200).build());
+        assertEquals(200, response.get().getStatusCode());
+    }
+
+    @Test
+    public void testSlowGetIsHedgedAndFirstResponseWins() throws Exception {
+        final HedgingPolicy hedgingPolicy = new HedgingPolicy(0.9, 1, 1, TimeUnit.MILLISECONDS, scheduler);
+        warmUp(hedgingPolicy, "issue/{}");
+        final SettableFuture<Response> slow = SettableFuture.create();
+        final AtomicInteger sent = new AtomicInteger();
+
+        final ResponsePromise response = hedgingPolicy.execute("issue/{}", () -> sent.incrementAndGet() == 1
+                ? ResponsePromises.toResponsePromise(slow) : respond(200), scheduler);
+        assertFalse(response.isDone());
+        scheduler.advance(1, TimeUnit.SECONDS);
+
+        assertEquals(200, response.get().getStatusCode());
+        assertEquals(2, sent.get());
+        assertEquals(1, hedgingPolicy.getHedgedRequests());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    public void testFailedHedgeWaitsForFirstRequest() throws Exception {
+        final HedgingPolicy hedgingPolicy = new HedgingPolicy(0.9, 1, 1, TimeUnit.MILLISECONDS, scheduler);
+        warmUp(hedgingPolicy, "issue/{}");
+        final SettableFuture<Response> slow = SettableFuture.create();
+        final AtomicInteger sent = new AtomicInteger();
+
+        final ResponsePromise response = hedgingPolicy.execute("issue/{}", () -> sent.incrementAndGet() == 1
+                ? ResponsePromises.toResponsePromise(slow)
+                : ResponsePromises.toResponsePromise(Futures.<Response>immediateFailedFuture(new IOException("Connection reset"))), scheduler);
+        scheduler.advance(1, TimeUnit.SECONDS);
+        assertEquals(2, sent.get());
+        assertFalse(response.isDone());
+        slow.set(DefaultResponse.builder().setStatusCode(200).build());
+
+        assertEquals(200, response.get().getStatusCode());
+    }
+
+    @Test
+    public void testHedgingStopsWhenBudgetIsSpent() throws Exception {
+        final HedgingPolicy hedgingPolicy = new HedgingPolicy(0.9, 0, 1, TimeUnit.MILLISECONDS, scheduler);
+        warmUp(hedgingPolicy, "search");
+        final AtomicInteger sent = new AtomicInteger();
+
+        hedgeSlowGets(hedgingPolicy, 12, sent);
+
+        assertEquals(10, hedgingPolicy.getHedgedRequests());
+        assertEquals(22, sent.get());
+    }
+
+    @Test
+    public void testHedgeRejectedByNextStageRefundsBudget() throws Exception {
+        final HedgingPolicy hedgingPolicy = new HedgingPolicy(0.9, 0, 1, TimeUnit.MILLISECONDS, scheduler);
+        warmUp(hedgingPolicy, "search");
+        final SettableFuture<Response> slow = SettableFuture.create();
+        final AtomicInteger sent = new AtomicInteger();
+
+        final ResponsePromise response = hedgingPolicy.execute("search", () -> {
+            if (sent.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("Too many queued requests");
+            }
+            return ResponsePromises.toResponsePromise(slow);
+        }, scheduler);
+        scheduler.advance(1, TimeUnit.SECONDS);
+        assertEquals(0, hedgingPolicy.getHedgedRequests());
+        assertEquals(1, hedgingPolicy.getFailedHedges());
+        assertFalse(response.isDone());
+        slow.set(DefaultResponse.builder().setStatusCode(200).build());
+        assertEquals(200, response.get().getStatusCode());
+
+        // the whole budget is still there
+        hedgeSlowGets(hedgingPolicy, 11, new AtomicInteger());
+        assertEquals(10, hedgingPolicy.getHedgedRequests());
+    }
+
+    @Test
+    public void testPercentileOfLatencySamples() {
+        final HedgingPolicy.LatencySamples samples = new HedgingPolicy.LatencySamples();
+        for (int i = 1; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            samples.add(i);
+        }
+        assertEquals(-1, samples.getPercentile(0.5));
+        samples.add(HedgingPolicy.MIN_SAMPLES);
+        assertEquals(25, samples.getPercentile(0.5));
+        assertEquals(48, samples.getPercentile(0.95));
+    }
+
+    private void hedgeSlowGets(final HedgingPolicy hedgingPolicy, final int count, final AtomicInteger sent) throws Exception {
+        for (int i = 0; i < count; i++) {
+            final SettableFuture<Response> slow = SettableFuture.create();
+            final ResponsePromise response = hedgingPolicy.execute("search", () -> {
+                sent.incrementAndGet();
+                return ResponsePromises.toResponsePromise(slow);
+            }, scheduler);
+            scheduler.advance(1, TimeUnit.SECONDS);
+            slow.set(DefaultResponse.builder().setStatusCode(200).build());
+            assertEquals(200, response.get().getStatusCode());
+        }
+    }
+
+    private void warmUp(final HedgingPolicy hedgingPolicy, final String endpoint) throws Exception {
+        for (int i = 0; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            hedgingPolicy.execute(endpoint, () -> respond(200), scheduler).get();
+        }
+    }
+
+    private static ResponsePromise respond(final int statusCode) {
+        return ResponsePromises.toResponsePromise(Futures.<Response>immediateFuture(
+                DefaultResponse.builder().setStatusCode(statusCode).build()));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InFlightRequestsTest {
+
+    private static final URI ISSUE_URI = URI.create("http://localhost/jira/rest/api/latest/issue/TST-1");
+
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+    private final AtomicInteger sent = new AtomicInteger();
+
+    @Test
+    public void testConcurrentCallersShareRequest() throws Exception {
+        final SettableFuture<String> response = SettableFuture.create();
+
+        final Promise<String> first = join(ISSUE_URI, String.class, response);
+        final Promise<String> second = join(ISSUE_URI, String.class, SettableFuture.<String>create());
+        response.set("TST-1");
+
+        assertEquals("TST-1", first.claim());
+        assertEquals("TST-1", second.claim());
+        assertEquals(1, sent.get());
+        assertEquals(0, inFlightRequests.size());
+    }
+
+    @Test
+    public void testCompletedRequestIsNotShared() throws Exception {
+        final SettableFuture<String> firstResponse = SettableFuture.create();
+        final SettableFuture<String> secondResponse = SettableFuture.create();
+
+        final Promise<String> first = join(ISSUE_URI, String.class, firstResponse);
+        firstResponse.set("old");
+        final Promise<String> second = join(ISSUE_URI, String.class, secondResponse);
+        secondResponse.set("new");
+
+        assertEquals("old", first.claim());
+        assertEquals("new", second.claim());
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testDifferentResourcesAndParsersAreNotShared() throws Exception {
+        join(ISSUE_URI, String.class, SettableFuture.<String>create());
+        join(URI.create("http://localhost/jira/rest/api/latest/issue/TST-2"), String.class, SettableFuture.<String>create());
+        join(ISSUE_URI, Integer.class, SettableFuture.<String>create());
+        // parsers of one class, e.g. generic array parsers, may still read the resource differently
+        join(ISSUE_URI, new StringBuilder("a"), SettableFuture.<String>create());
+        join(ISSUE_URI, new StringBuilder("b"), SettableFuture.<String>create());
+
+        assertEquals(5, sent.get());
+        assertEquals(5, inFlightRequests.size());
+    }
+
+    @Test
+    public void testFailureIsHandedToAllCallers() throws Exception {
+        final SettableFuture<String> response = SettableFuture.create();
+
+        final Promise<String> first = join(ISSUE_URI, String.class, response);
+        final Promise<String> second = join(ISSUE_URI, String.class, response);
+        response.setException(new RestClientException("Issue Does Not Exist", null));
+
+        for (Promise<String> promise : new Promise[]{first, second}) {
+            try {
+                promise.get();
+                fail("ExecutionException expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RestClientException);
+            }
+        }
+    }
+
+    @Test
+    public void testRequestIsCancelledOnlyWhenAllCallersCancel() throws Exception {
+        final SettableFuture<String> response = SettableFuture.create();
+
+        final Promise<String> first = join(ISSUE_URI, String.class, response);
+        final Promise<String> second = join(ISSUE_URI, String.class, response);
+        first.cancel(true);
+        assertFalse(response.isCancelled());
+        assertFalse(second.isDone());
+
+        second.cancel(true);
+        assertTrue(response.isCancelled());
+        assertEquals(0, inFlightRequests.size());
+
+        final SettableFuture<String> retried = SettableFuture.create();
+        final Promise<String> third = join(ISSUE_URI, String.class, retried);
+        retried.set("TST-1");
+        assertEquals("TST-1", third.claim());
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testJoinerCancellingWhileRequestIsSentDoesNotCancelIt() throws Exception {
+        final SettableFuture<String> response = SettableFuture.create();
+
+        final Promise<String> creator = inFlightRequests.join(ISSUE_URI, String.class, () -> {
+            // joins the flight before the call of its creator returns
+            join(ISSUE_URI, String.class, SettableFuture.<String>create()).cancel(true);
+            return Promises.forListenableFuture(response);
+        });
+        assertFalse(response.isCancelled());
+        response.set("TST-1");
+
+        assertEquals("TST-1", creator.claim());
+    }
+
+    private Promise<String> join(final URI uri, final Object parser, final SettableFuture<String> response) {
+        return inFlightRequests.join(uri, parser, () -> {
+            sent.incrementAndGet();
+            return Promises.forListenableFuture(response);
+        });
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static com.atlassian.jira.rest.client.test.matchers.IssueMatchers.issuesWithKeys;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class KeysetSearchResultIterableTest {
+
+    @Test
+    public void testPageJql() {
+        final StubSearchRestClient client = new StubSearchRestClient(0, 100);
+
+        final KeysetSearchResultIterable iterable = new KeysetSearchResultIterable(client, "project = TST order by key DESC", 10, null);
+        assertEquals("(project = TST) ORDER BY id ASC", iterable.pageJql(null));
+        assertEquals("(project = TST) AND id > 10040 ORDER BY id ASC", iterable.pageJql(10040L));
+
+        final KeysetSearchResultIterable all = new KeysetSearchResultIterable(client, null, 10, null);
+        assertEquals("ORDER BY id ASC", all.pageJql(null));
+        assertEquals("id > 5 ORDER BY id ASC", all.pageJql(5L));
+    }
+
+    @Test
+    public void testPageJqlKeepsQuotedOrderBy() {
+        final StubSearchRestClient client = new StubSearchRestClient(0, 100);
+
+        final KeysetSearchResultIterable iterable = new KeysetSearchResultIterable(client,
+                "summary ~ \"order by date\" order by key", 10, null);
+        assertEquals("(summary ~ \"order by date\") ORDER BY id ASC", iterable.pageJql(null));
+        assertEquals("(summary ~ \"order by date\") AND id > 7 ORDER BY id ASC", iterable.pageJql(7L));
+    }
+
+    @Test
+    public void testAdvancesCursorFromLastIssueId() {
+        final StubSearchRestClient client = new StubSearchRestClient(5, 100);
+
+        assertThat(client.searchAllByKeyset("project = TST", 2, null), issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3", "TST-4"));
+        assertEquals(ImmutableList.of(
+                "(project = TST) ORDER BY id ASC",
+                "(project = TST) AND id > 1 ORDER BY id ASC",
+                "(project = TST) AND id > 3 ORDER BY id ASC"), client.getRequestedJqls());
+        assertEquals(ImmutableList.of(0, 0, 0), client.getRequestedStartAts());
+    }
+
+    @Test
+    public void testFullLastPageNeedsOneMoreRequest() {
+        final StubSearchRestClient client = new StubSearchRestClient(4, 100);
+
+        assertThat(client.searchAllByKeyset(null, 2, null), issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3"));
+        assertEquals(3, client.getRequestedJqls().size());
+    }
+
+    @Test
+    public void testFollowsPageSizeCappedByServer() {
+        final StubSearchRestClient client = new StubSearchRestClient(5, 2);
+
+        assertThat(client.searchAllByKeyset(null, 50, null), issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3", "TST-4"));
+        assertEquals(3, client.getRequestedJqls().size());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler running its tasks on the calling thread, only when the test advances its clock past their time.
+ */
+class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    // guarded by this
+    private final PriorityQueue<Task<?>> tasks = new PriorityQueue<>();
+    private long nanos;
+    private long sequence;
+    private boolean shutdown;
+
+    /**
+     * Runs, in order, all tasks due within given time.
+     */
+    void advance(final long time, final TimeUnit unit) {
+        final long until;
+        synchronized (this) {
+            until = nanos + unit.toNanos(time);
+        }
+        while (true) {
+            final Task<?> task;
+            synchronized (this) {
+                if (tasks.isEmpty() || tasks.peek().at > until) {
+                    nanos = until;
+                    return;
+                }
+                task = tasks.poll();
+                nanos = task.at;
+            }
+            task.run();
+        }
+    }
+
+    synchronized int getPendingTasks() {
+        return tasks.size();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public synchronized <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Scheduler shut down");
+        }
+        final Task<V> task = new Task<>(callable, nanos + Math.max(0, unit.toNanos(delay)), sequence++);
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period,
+                                                  final TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay,
+                                                     final TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown = true;
+        tasks.clear();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && tasks.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+        return isTerminated();
+    }
+
+    private class Task<V> extends FutureTask<V> implements ScheduledFuture<V> {
+        private final long at;
+        private final long order;
+
+        Task(final Callable<V> callable, final long at, final long order) {
+            super(callable);
+            this.at = at;
+            this.order = order;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            synchronized (ManualScheduler.this) {
+                tasks.remove(this);
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            synchronized (ManualScheduler.this) {
+                return unit.convert(at - nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            final Task<?> that = (Task<?>) other;
+            return at != that.at ? Long.compare(at, that.at) : Long.compare(order, that.order);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoizedPromiseTest {
+
+    private final Deque<Promise<String>> usernames = new ArrayDeque<>();
+    private int fetches;
+    private final MemoizedPromise<String> username = new MemoizedPromise<>(() -> {
+        fetches++;
+        return usernames.remove();
+    });
+
+    @Test
+    public void testValueIsFetchedOnce() {
+        final SettableFuture<String> fetched = SettableFuture.create();
+        usernames.add(Promises.forListenableFuture(fetched));
+
+        final Promise<String> first = username.get();
+        final Promise<String> second = username.get();
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        fetched.set("admin");
+        assertEquals("admin", first.claim());
+        assertEquals("admin", second.claim());
+        assertEquals("admin", username.get().claim());
+        assertEquals(1, fetches);
+    }
+
+    @Test
+    public void testFailedFetchIsRetried() {
+        usernames.add(Promises.<String>rejected(new RestClientException("Service Unavailable", null)));
+        usernames.add(Promises.promise("admin"));
+
+        try {
+            username.get().claim();
+        } catch (RestClientException expected) {
+            // the next call fetches again
+        }
+        assertEquals("admin", username.get().claim());
+        assertEquals(2, fetches);
+    }
+
+    @Test
+    public void testCancelledCallerLeavesFetchToOthers() {
+        final SettableFuture<String> fetched = SettableFuture.create();
+        usernames.add(Promises.forListenableFuture(fetched));
+
+        final Promise<String> cancelled = username.get();
+        final Promise<String> waiting = username.get();
+        assertTrue(cancelled.cancel(true));
+        assertTrue(cancelled.isCancelled());
+        assertFalse(fetched.isCancelled());
+        assertFalse(waiting.isDone());
+
+        fetched.set("admin");
+        assertEquals("admin", waiting.claim());
+        assertEquals("admin", username.get().claim());
+        assertEquals(1, fetches);
+    }
+
+    @Test
+    public void testCancelledFetchIsRetried() {
+        final SettableFuture<String> fetched = SettableFuture.create();
+        usernames.add(Promises.forListenableFuture(fetched));
+        usernames.add(Promises.promise("admin"));
+
+        final Promise<String> first = username.get();
+        assertTrue(fetched.cancel(true));
+        assertTrue(first.isDone());
+        assertEquals("admin", username.get().claim());
+        assertEquals(2, fetches);
+    }
+
+    @Test
+    public void testInvalidatedValueIsFetchedAgain() {
+        usernames.add(Promises.promise("admin"));
+        usernames.add(Promises.promise("fred"));
+        final Promise<String> stale = username.get();
+
+        username.invalidate(stale);
+        assertEquals("fred", username.get().claim());
+        // a late invalidation of the stale value keeps the current one
+        username.invalidate(stale);
+        assertEquals("fred", username.get().claim());
+        assertEquals(2, fetches);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestRateLimiterTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testBucketDelaysRequestsOverBurst() {
+        final RequestRateLimiter.TokenBucket bucket = new RequestRateLimiter.TokenBucket(10, 2);
+        final long now = System.nanoTime();
+
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now));
+        final long firstDelay = bucket.reserve(now);
+        final long secondDelay = bucket.reserve(now);
+        assertTrue(firstDelay > TimeUnit.MILLISECONDS.toNanos(90) && firstDelay <= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(secondDelay > TimeUnit.MILLISECONDS.toNanos(190) && secondDelay <= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void testTooManyRequestsIsDeferredAndSentAgain() throws Exception {
+        final RequestRateLimiter limiter = new RequestRateLimiter(1000, 10, ImmutableMap.<String, Double>of(), 3, scheduler);
+        final AtomicInteger sent = new AtomicInteger();
+
+        final Response response = limiter.execute("search", () -> sent.incrementAndGet() == 1
+                ? respond(tooManyRequests("0")) : respond(ok()), scheduler).get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, sent.get());
+        assertEquals(1, limiter.getDeferredRequests());
+    }
+
+    @Test
+    public void testTooManyRequestsIsHandedOverAfterMaxDeferrals() throws Exception {
+        final RequestRateLimiter limiter = new RequestRateLimiter(1000, 10, ImmutableMap.<String, Double>of(), 1, scheduler);
+        final AtomicInteger sent = new AtomicInteger();
+
+        final Response response = limiter.execute("search", () -> {
+            sent.incrementAndGet();
+            return respond(tooManyRequests("0"));
+        }, scheduler).get(5, TimeUnit.SECONDS);
+
+        assertEquals(429, response.getStatusCode());
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testTooManyRequestsResendsPostWithSameBody() throws Exception {
+        final ManualScheduler manualScheduler = new ManualScheduler();
+        final StubHttpClient transport = new StubHttpClient();
+        final DisposableHttpClient client = new AsynchronousHttpClientFactory().createClient(transport, null, null,
+                ImmutableList.of(new RequestRateLimiter(1000, 10, ImmutableMap.<String, Double>of(), 3, manualScheduler)));
+        final String body = "{\"body\":\"Sent after a 429\"}";
+
+        final ResponsePromise response = client.newRequest(
+                URI.create("http://localhost:8090/jira/rest/api/latest/issue/TST-1/comment"), "application/json", body).post();
+        transport.respond(0, 429);
+        manualScheduler.advance(2, TimeUnit.SECONDS);
+        transport.respond(1, 201);
+
+        assertEquals(201, response.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, transport.getRequests().size());
+        assertEquals(body, transport.getRequests().get(0).getEntity());
+        assertEquals(body, transport.getRequests().get(1).getEntity());
+        client.destroy();
+    }
+
+    @Test
+    public void testTooManyRequestsIsHandedOverWhenBodyCannotBeSentAgain() throws Exception {
+        final RequestRateLimiter limiter = new RequestRateLimiter(1000, 10, ImmutableMap.<String, Double>of(), 3, scheduler);
+        final AtomicInteger sent = new AtomicInteger();
+        final RequestStage.Next once = new RequestStage.Next() {
+            @Override
+            public ResponsePromise get() {
+                sent.incrementAndGet();
+                return respond(tooManyRequests("0"));
+            }
+
+            @Override
+            public boolean isRepeatable() {
+                return false;
+            }
+        };
+
+        assertEquals(429, limiter.execute("issue", once, scheduler).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, sent.get());
+        assertEquals(0, limiter.getDeferredRequests());
+    }
+
+    @Test
+    public void testCancelledRequestReturnsItsTokens() throws Exception {
+        final ManualScheduler manualScheduler = new ManualScheduler();
+        final RequestRateLimiter limiter = new RequestRateLimiter(1, 1, ImmutableMap.of("search", 1.0), 0, manualScheduler);
+        final AtomicInteger sent = new AtomicInteger();
+        final RequestStage.Next next = () -> {
+            sent.incrementAndGet();
+            return respond(ok());
+        };
+
+        limiter.execute("search", next, manualScheduler);
+        final ResponsePromise cancelled = limiter.execute("search", next, manualScheduler);
+        assertEquals(1, manualScheduler.getPendingTasks());
+        cancelled.cancel(true);
+        assertEquals(0, manualScheduler.getPendingTasks());
+
+        // takes the time slot of the cancelled request instead of the one after it
+        final ResponsePromise response = limiter.execute("search", next, manualScheduler);
+        manualScheduler.advance(1, TimeUnit.SECONDS);
+
+        assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testRetryAfterInSecondsAndAsDate() {
+        assertEquals(120000, RequestRateLimiter.getRetryAfterMillis(tooManyRequests("120")));
+        assertEquals(1000, RequestRateLimiter.getRetryAfterMillis(tooManyRequests("soon")));
+
+        final String inOneMinute = new DateTime(DateTimeZone.UTC).plusMinutes(1)
+                .toString("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        final long millis = RequestRateLimiter.getRetryAfterMillis(tooManyRequests(inOneMinute));
+        assertTrue(millis > 55000 && millis <= 60000);
+    }
+
+    @Test
+    public void testEndpointGroups() {
+        assertEquals("issue", Endpoints.group(URI.create("http://localhost:2990/jira/rest/api/2/issue/TST-1/comment")));
+        assertEquals("search", Endpoints.group(URI.create("http://localhost:2990/jira/rest/api/latest/search?jql=")));
+        assertEquals("session", Endpoints.group(URI.create("http://localhost:2990/jira/rest/auth/1/session")));
+        assertEquals(Endpoints.NON_REST, Endpoints.group(URI.create("http://localhost:2990/jira/secure/attachment/10000/report.pdf")));
+    }
+
+    private static ResponsePromise respond(final Response response) {
+        return ResponsePromises.toResponsePromise(Futures.immediateFuture(response));
+    }
+
+    private static Response ok() {
+        return DefaultResponse.builder().setStatusCode(200).build();
+    }
+
+    private static Response tooManyRequests(final String retryAfter) {
+        return DefaultResponse.builder().setStatusCode(429).setHeader("Retry-After", retryAfter).build();
+    }
+}
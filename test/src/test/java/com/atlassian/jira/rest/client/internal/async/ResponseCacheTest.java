@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultRequest;
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ResponseCacheTest {
+
+    private static final URI ISSUE_URI = URI.create("http://localhost/jira/rest/api/latest/issue/TST-1");
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private final ResponseCache responseCache = new ResponseCache(2);
+
+    @Test
+    public void testUnchangedResourceIsServedFromCache() {
+        assertNull(responseCache.get(ISSUE_URI, String.class));
+        responseCache.put(ISSUE_URI, String.class, response("\"1\"", null), "TST-1");
+
+        final ResponseCache.Entry cached = responseCache.get(ISSUE_URI, String.class);
+        assertNotNull(cached);
+        final Request request = withValidators(cached);
+        assertEquals("\"1\"", request.getHeader("If-None-Match"));
+        assertNull(request.getHeader("If-Modified-Since"));
+        assertEquals("TST-1", responseCache.notModified(cached));
+
+        assertEquals(1, responseCache.getHits());
+        assertEquals(1, responseCache.getMisses());
+        assertEquals(1, responseCache.getRevalidations());
+    }
+
+    @Test
+    public void testLastModifiedIsUsedAsValidator() {
+        responseCache.put(ISSUE_URI, String.class, response(null, LAST_MODIFIED), "TST-1");
+
+        final Request request = withValidators(responseCache.get(ISSUE_URI, String.class));
+        assertEquals(LAST_MODIFIED, request.getHeader("If-Modified-Since"));
+        assertNull(request.getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testResponseWithoutValidatorsIsNotCached() {
+        responseCache.put(ISSUE_URI, String.class, response("\"1\"", null), "TST-1");
+        responseCache.put(ISSUE_URI, String.class, response(null, null), "TST-1 changed");
+
+        assertNull(responseCache.get(ISSUE_URI, String.class));
+        assertEquals(0, responseCache.size());
+    }
+
+    @Test
+    public void testResultTypesAreCachedSeparately() {
+        responseCache.put(ISSUE_URI, String.class, response("\"1\"", null), "TST-1");
+
+        assertNull(responseCache.get(ISSUE_URI, Integer.class));
+        assertNotNull(responseCache.get(ISSUE_URI, String.class));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        for (int i = 1; i <= 5; i++) {
+            responseCache.put(URI.create("http://localhost/jira/rest/api/latest/issue/TST-" + i), String.class,
+                    response("\"" + i + "\"", null), "TST-" + i);
+        }
+
+        assertEquals(2, responseCache.size());
+    }
+
+    private static Request withValidators(final ResponseCache.Entry cached) {
+        final Request.Builder builder = new DefaultRequest.DefaultRequestBuilder(null).setUri(ISSUE_URI);
+        cached.addValidators(builder);
+        return builder.build();
+    }
+
+    private static Response response(final String etag, final String lastModified) {
+        final DefaultResponse.DefaultResponseBuilder builder = DefaultResponse.builder().setStatusCode(200);
+        if (etag != null) {
+            builder.setHeader("ETag", etag);
+        }
+        if (lastModified != null) {
+            builder.setHeader("Last-Modified", lastModified);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResponseParsingExecutorTest {
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(r -> new Thread(r, "parser"));
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testResponseCompletesOnExecutor() throws Exception {
+        final ResponseParsingExecutor parsingExecutor = new ResponseParsingExecutor(executorService);
+        final SettableFuture<Response> response = SettableFuture.create();
+        final ResponsePromise offloaded = parsingExecutor.offload(ResponsePromises.toResponsePromise(response));
+
+        final AtomicReference<String> completingThread = new AtomicReference<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        offloaded.addListener(() -> {
+            completingThread.set(Thread.currentThread().getName());
+            completed.countDown();
+        }, Runnable::run);
+
+        response.set(null);
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals("parser", completingThread.get());
+        // metrics are recorded right after the completion
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, parsingExecutor.getProcessedResponses());
+        assertEquals(0, parsingExecutor.getQueueDepth());
+        assertTrue(parsingExecutor.getMaxProcessingTimeNanos() <= parsingExecutor.getTotalProcessingTimeNanos());
+    }
+
+    @Test
+    public void testFailureIsPropagated() throws Exception {
+        final ResponseParsingExecutor parsingExecutor = new ResponseParsingExecutor(executorService);
+        final SettableFuture<Response> response = SettableFuture.create();
+        final ResponsePromise offloaded = parsingExecutor.offload(ResponsePromises.toResponsePromise(response));
+
+        final IllegalStateException failure = new IllegalStateException("connection reset");
+        response.setException(failure);
+        try {
+            offloaded.get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void testRejectedResponseCompletesOnCallingThread() throws Exception {
+        final ResponseParsingExecutor parsingExecutor = new ResponseParsingExecutor(command -> {
+            throw new RejectedExecutionException();
+        });
+        final SettableFuture<Response> response = SettableFuture.create();
+        final ResponsePromise offloaded = parsingExecutor.offload(ResponsePromises.toResponsePromise(response));
+
+        response.set(null);
+        assertTrue(offloaded.isDone());
+        assertEquals(1, parsingExecutor.getProcessedResponses());
+        assertEquals(0, parsingExecutor.getQueueDepth());
+    }
+}
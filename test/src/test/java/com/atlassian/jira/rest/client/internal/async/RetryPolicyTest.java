@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.SocketException;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RetryPolicyTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testGetIsRetriedAfterServiceUnavailable() throws Exception {
+        final RetryPolicy retryPolicy = newRetryPolicy(false, 10);
+        final AtomicInteger sent = new AtomicInteger();
+
+        final Response response = retryPolicy.execute(Request.Method.GET, () -> sent.incrementAndGet() < 3
+                ? respond(503) : respond(200), scheduler).get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(3, sent.get());
+        assertEquals(2, retryPolicy.getRetries());
+    }
+
+    @Test
+    public void testConnectionResetIsRetried() throws Exception {
+        final RetryPolicy retryPolicy = newRetryPolicy(false, 10);
+        final AtomicInteger sent = new AtomicInteger();
+
+        final Response response = retryPolicy.execute(Request.Method.DELETE, () -> sent.incrementAndGet() == 1
+                ? ResponsePromises.toResponsePromise(Futures.<Response>immediateFailedFuture(new SocketException("Connection reset")))
+                : respond(204), scheduler).get(5, TimeUnit.SECONDS);
+
+        assertEquals(204, response.getStatusCode());
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testPostIsRetriedOnlyWhenEnabled() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+
+        assertEquals(503, newRetryPolicy(false, 10).execute(Request.Method.POST, () -> {
+            sent.incrementAndGet();
+            return respond(503);
+        }, scheduler).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, sent.get());
+
+        assertEquals(200, newRetryPolicy(true, 10).execute(Request.Method.POST, () -> sent.incrementAndGet() == 2
+                ? respond(503) : respond(200), scheduler).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+        final RetryPolicy retryPolicy = newRetryPolicy(false, 10);
+        final AtomicInteger sent = new AtomicInteger();
+
+        assertEquals(404, retryPolicy.execute(Request.Method.GET, () -> {
+            sent.incrementAndGet();
+            return respond(404);
+        }, scheduler).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    public void testRetriesStopWhenBudgetIsSpent() throws Exception {
+        final RetryPolicy retryPolicy = newRetryPolicy(false, 1);
+        final AtomicInteger sent = new AtomicInteger();
+
+        assertEquals(502, retryPolicy.execute(Request.Method.GET, () -> {
+            sent.incrementAndGet();
+            return respond(502);
+        }, scheduler).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, sent.get());
+        assertEquals(1, retryPolicy.getRetries());
+        assertEquals(1, retryPolicy.getExhaustedBudget());
+    }
+
+    @Test
+    public void testRetriedPutSendsSameBody() throws Exception {
+        final ManualScheduler manualScheduler = new ManualScheduler();
+        final StubHttpClient transport = new StubHttpClient();
+        final DisposableHttpClient client = new AsynchronousHttpClientFactory().createClient(transport, null, null,
+                ImmutableList.of(new RetryPolicy(3, 1, 10, TimeUnit.MILLISECONDS, false, 0, 10, manualScheduler)));
+        final String body = "{\"fields\":{\"summary\":\"Sent twice\"}}";
+
+        final ResponsePromise response = client.newRequest(
+                URI.create("http://localhost:8090/jira/rest/api/latest/issue/TST-1"), "application/json", body).put();
+        transport.respond(0, 503);
+        manualScheduler.advance(1, TimeUnit.SECONDS);
+        transport.respond(1, 204);
+
+        assertEquals(204, response.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(2, transport.getRequests().size());
+        assertEquals(body, transport.getRequests().get(0).getEntity());
+        assertEquals(body, transport.getRequests().get(1).getEntity());
+        client.destroy();
+    }
+
+    @Test
+    public void testRequestWhoseBodyCannotBeSentAgainIsNotRetried() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        final RequestStage.Next once = new RequestStage.Next() {
+            @Override
+            public ResponsePromise get() {
+                sent.incrementAndGet();
+                return respond(503);
+            }
+
+            @Override
+            public boolean isRepeatable() {
+                return false;
+            }
+        };
+
+        assertEquals(503, newRetryPolicy(false, 10).execute(Request.Method.PUT, once, scheduler)
+                .get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    public void testBackoffDoublesUpToMaxDelay() {
+        final RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000, TimeUnit.MILLISECONDS, false, 0, 10, scheduler);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), retryPolicy.backoffNanos(0));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), retryPolicy.backoffNanos(2));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), retryPolicy.backoffNanos(4));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), retryPolicy.backoffNanos(100));
+    }
+
+    private RetryPolicy newRetryPolicy(final boolean retryPost, final int budget) {
+        return new RetryPolicy(3, 1, 10, TimeUnit.MILLISECONDS, retryPost, 0, budget, scheduler);
+    }
+
+    private static ResponsePromise respond(final int statusCode) {
+        return ResponsePromises.toResponsePromise(Futures.<Response>immediateFuture(
+                DefaultResponse.builder().setStatusCode(statusCode).build()));
+    }
+}
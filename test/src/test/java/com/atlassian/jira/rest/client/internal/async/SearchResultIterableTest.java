@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static com.atlassian.jira.rest.client.test.matchers.IssueMatchers.issuesWithKeys;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SearchResultIterableTest {
+
+    @Test
+    public void testNothingRequestedBeforeIteration() {
+        final StubSearchRestClient client = new StubSearchRestClient(5, 100);
+        client.searchAll("project = TST", 2, 1, null);
+        assertTrue(client.getRequestedStartAts().isEmpty());
+    }
+
+    @Test
+    public void testIteratesOverAllPages() {
+        final StubSearchRestClient client = new StubSearchRestClient(5, 100);
+        final Iterable<Issue> issues = client.searchAll("project = TST", 2, 1, null);
+
+        assertThat(issues, issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3", "TST-4"));
+        assertEquals(ImmutableList.of(0, 2, 4), client.getRequestedStartAts());
+    }
+
+    @Test
+    public void testPrefetchesConfiguredNumberOfPages() {
+        final StubSearchRestClient client = new StubSearchRestClient(10, 100);
+        final Iterator<Issue> iterator = client.searchAll(null, 2, 2, null).iterator();
+
+        assertEquals("TST-0", iterator.next().getKey());
+        // first page plus two pages ahead
+        assertEquals(ImmutableList.of(0, 2, 4), client.getRequestedStartAts());
+        iterator.next();
+        iterator.next();
+        assertEquals(ImmutableList.of(0, 2, 4, 6), client.getRequestedStartAts());
+    }
+
+    @Test
+    public void testFollowsPageSizeCappedByServer() {
+        final StubSearchRestClient client = new StubSearchRestClient(7, 3);
+        final Iterable<Issue> issues = client.searchAll(null, 50, 0, null);
+
+        assertEquals(7, Iterables.size(issues));
+        assertEquals(ImmutableList.of(0, 3, 6), client.getRequestedStartAts());
+    }
+
+    @Test
+    public void testParallelFanOutKeepsRequestOrder() {
+        final StubSearchRestClient client = new StubSearchRestClient(9, 100);
+        final Iterable<Issue> issues = client.searchAllParallel(null, 2, 3, true, null);
+
+        assertThat(issues, issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3", "TST-4", "TST-5", "TST-6", "TST-7", "TST-8"));
+        assertEquals(ImmutableList.of(0, 2, 4, 6, 8), client.getRequestedStartAts());
+    }
+
+    @Test
+    public void testParallelFanOutReturnsPagesAsTheyComplete() {
+        final StubSearchRestClient client = new StubSearchRestClient(6, 100);
+        client.deferPagesAfterFirst();
+        final Iterator<Issue> iterator = client.searchAllParallel(null, 2, 3, false, null).iterator();
+
+        assertEquals("TST-0", iterator.next().getKey());
+        assertEquals("TST-1", iterator.next().getKey());
+        assertEquals(ImmutableList.of(0, 2, 4), client.getRequestedStartAts());
+
+        client.complete(4);
+        assertEquals("TST-4", iterator.next().getKey());
+        assertEquals("TST-5", iterator.next().getKey());
+        client.complete(2);
+        assertEquals("TST-2", iterator.next().getKey());
+        assertEquals("TST-3", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testFailedPageCancelsPrefetchedPages() {
+        final StubSearchRestClient client = new StubSearchRestClient(8, 100);
+        client.deferPagesAfterFirst();
+        final Iterator<Issue> iterator = client.searchAll(null, 2, 3, null).iterator();
+
+        assertEquals("TST-0", iterator.next().getKey());
+        assertEquals("TST-1", iterator.next().getKey());
+        assertEquals(ImmutableList.of(0, 2, 4, 6), client.getRequestedStartAts());
+
+        client.fail(2, new RestClientException("Service Unavailable", null));
+        try {
+            iterator.next();
+            fail("RestClientException expected");
+        } catch (RestClientException expected) {
+            assertTrue(client.isCancelled(4));
+            assertTrue(client.isCancelled(6));
+        }
+    }
+
+    @Test
+    public void testEmptyResult() {
+        final StubSearchRestClient client = new StubSearchRestClient(0, 100);
+        assertFalse(client.searchAll(null, 10, 3, null).iterator().hasNext());
+        assertEquals(ImmutableList.of(0), client.getRequestedStartAts());
+    }
+}
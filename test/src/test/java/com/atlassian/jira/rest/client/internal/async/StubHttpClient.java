@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.httpclient.apache.httpcomponents.DefaultRequest;
+import com.atlassian.httpclient.apache.httpcomponents.DefaultResponse;
+import com.atlassian.httpclient.api.DefaultResponseTransformation;
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.httpclient.api.Request;
+import com.atlassian.httpclient.api.Response;
+import com.atlassian.httpclient.api.ResponsePromise;
+import com.atlassian.httpclient.api.ResponsePromises;
+import com.atlassian.httpclient.api.ResponseTransformation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP client recording the requests sent through it, whose responses the test completes with
+ * {@link #respond(int, int)}.
+ */
+class StubHttpClient implements HttpClient {
+
+    private final List<Request> requests = new ArrayList<>();
+    private final List<SettableFuture<Response>> responses = new ArrayList<>();
+
+    @Override
+    public Request.Builder newRequest() {
+        return new DefaultRequest.DefaultRequestBuilder(this);
+    }
+
+    @Override
+    public Request.Builder newRequest(final URI uri) {
+        return newRequest().setUri(uri);
+    }
+
+    @Override
+    public Request.Builder newRequest(final URI uri, final String contentType, final String entity) {
+        return newRequest(uri).setContentType(contentType).setEntity(entity);
+    }
+
+    @Override
+    public Request.Builder newRequest(final String uri) {
+        return newRequest(URI.create(uri));
+    }
+
+    @Override
+    public Request.Builder newRequest(final String uri, final String contentType, final String entity) {
+        return newRequest(URI.create(uri), contentType, entity);
+    }
+
+    @Override
+    public void flushCacheByUriPattern(final Pattern urlPattern) {
+    }
+
+    @Override
+    public <A> ResponseTransformation.Builder<A> transformation() {
+        return DefaultResponseTransformation.builder();
+    }
+
+    @Override
+    public synchronized ResponsePromise execute(final Request request) {
+        final SettableFuture<Response> response = SettableFuture.create();
+        requests.add(request);
+        responses.add(response);
+        return ResponsePromises.toResponsePromise(response);
+    }
+
+    synchronized List<Request> getRequests() {
+        return ImmutableList.copyOf(requests);
+    }
+
+    /**
+     * Completes the response to the request with given index with given status and an empty JSON body.
+     */
+    void respond(final int request, final int statusCode) {
+        final SettableFuture<Response> response;
+        synchronized (this) {
+            response = responses.get(request);
+        }
+        response.set(DefaultResponse.builder().setStatusCode(statusCode).setEntity("{}").build());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.MetadataRestClient;
+import com.atlassian.jira.rest.client.api.domain.Field;
+import com.atlassian.jira.rest.client.api.domain.IssueType;
+import com.atlassian.jira.rest.client.api.domain.IssuelinksType;
+import com.atlassian.jira.rest.client.api.domain.Priority;
+import com.atlassian.jira.rest.client.api.domain.Resolution;
+import com.atlassian.jira.rest.client.api.domain.ServerInfo;
+import com.atlassian.jira.rest.client.api.domain.Status;
+import com.atlassian.util.concurrent.Promise;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Metadata client serving queued statuses and server infos, and counting how often they were requested.
+ */
+class StubMetadataRestClient implements MetadataRestClient {
+    final Deque<Promise<Iterable<Status>>> statuses = new ArrayDeque<>();
+    final Deque<Promise<ServerInfo>> serverInfos = new ArrayDeque<>();
+    int statusRequests;
+    int serverInfoRequests;
+
+    @Override
+    public Promise<Iterable<Status>> getStatuses() {
+        statusRequests++;
+        return statuses.remove();
+    }
+
+    @Override
+    public Promise<ServerInfo> getServerInfo() {
+        serverInfoRequests++;
+        return serverInfos.remove();
+    }
+
+    @Override
+    public Promise<IssueType> getIssueType(final URI uri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<IssueType>> getIssueTypes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<IssuelinksType>> getIssueLinkTypes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Status> getStatus(final URI uri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Priority> getPriority(final URI uri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<Priority>> getPriorities() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Resolution> getResolution(final URI uri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<Resolution>> getResolutions() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Promise<Iterable<Field>> getFields() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.async;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import com.atlassian.util.concurrent.Promise;
+import com.atlassian.util.concurrent.Promises;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.atlassian.jira.rest.client.TestUtil.toUri;
+
+/**
+ * Search client serving a fixed number of generated issues (keys TST-0, TST-1, ...) without any HTTP traffic.
+ * A <code>id &gt; N</code> condition in the query is honoured. Requested start offsets and queries are recorded. Pages other than the first one may be deferred, in which case
+ * they complete only when {@link #complete(int)} or {@link #fail(int, RuntimeException)} is called.
+ */
+public class StubSearchRestClient extends AsynchronousSearchRestClient {
+
+    private static final Pattern ID_GREATER_THAN = Pattern.compile("id > (\\d+)");
+
+    private final List<Issue> issues;
+    private final int serverMaxResults;
+    private final List<Integer> requestedStartAts = Lists.newArrayList();
+    private final List<String> requestedJqls = Lists.newArrayList();
+    private final Map<Integer, SettableFuture<SearchResult>> deferredPages = Maps.newHashMap();
+    private final Map<Integer, SearchResult> pendingResults = Maps.newHashMap();
+    private boolean deferPages;
+
+    public StubSearchRestClient(final int total, final int serverMaxResults) {
+        super(toUri("http://localhost:8090/jira/rest/api/latest"), null);
+        this.serverMaxResults = serverMaxResults;
+        final ImmutableList.Builder<Issue> builder = ImmutableList.builder();
+        for (int i = 0; i < total; i++) {
+            builder.add(issue(i, new DateTime(2018, 1, 1, 0, 0).plusMinutes(i)));
+        }
+        this.issues = builder.build();
+    }
+
+    @Override
+    public synchronized Promise<SearchResult> searchJql(@Nullable String jql, @Nullable Integer maxResults,
+                                                        @Nullable Integer startAt, @Nullable Set<String> fields) {
+        final int from = startAt == null ? 0 : startAt;
+        final int pageSize = Math.min(maxResults == null ? 50 : maxResults, serverMaxResults);
+        requestedStartAts.add(from);
+        requestedJqls.add(jql);
+        final List<Issue> matching = matching(jql);
+        final List<Issue> page = matching.subList(Math.min(from, matching.size()), Math.min(from + pageSize, matching.size()));
+        final SearchResult result = new SearchResult(from, pageSize, matching.size(), ImmutableList.copyOf(page));
+        if (deferPages && from > 0) {
+            final SettableFuture<SearchResult> future = SettableFuture.create();
+            deferredPages.put(from, future);
+            pendingResults.put(from, result);
+            return Promises.forListenableFuture(future);
+        }
+        return Promises.promise(result);
+    }
+
+    private List<Issue> matching(@Nullable final String jql) {
+        final Matcher matcher = ID_GREATER_THAN.matcher(jql == null ? "" : jql);
+        if (!matcher.find()) {
+            return issues;
+        }
+        final long lastSeenId = Long.parseLong(matcher.group(1));
+        final ImmutableList.Builder<Issue> builder = ImmutableList.builder();
+        for (Issue issue : issues) {
+            if (issue.getId() > lastSeenId) {
+                builder.add(issue);
+            }
+        }
+        return builder.build();
+    }
+
+    synchronized void deferPagesAfterFirst() {
+        deferPages = true;
+    }
+
+    void complete(final int startAt) {
+        final SettableFuture<SearchResult> future;
+        final SearchResult result;
+        synchronized (this) {
+            future = deferredPages.remove(startAt);
+            result = pendingResults.remove(startAt);
+        }
+        future.set(result);
+    }
+
+    void fail(final int startAt, final RuntimeException failure) {
+        final SettableFuture<SearchResult> future;
+        synchronized (this) {
+            future = deferredPages.remove(startAt);
+            pendingResults.remove(startAt);
+        }
+        future.setException(failure);
+    }
+
+    synchronized boolean isCancelled(final int startAt) {
+        return deferredPages.get(startAt).isCancelled();
+    }
+
+    public synchronized List<Integer> getRequestedStartAts() {
+        return ImmutableList.copyOf(requestedStartAts);
+    }
+
+    public synchronized List<String> getRequestedJqls() {
+        return ImmutableList.copyOf(requestedJqls);
+    }
+
+    static Issue issue(final long id, final DateTime updated) {
+        final URI self = toUri("http://localhost:8090/jira/rest/api/latest/issue/" + id);
+        return new Issue("Issue " + id, self, "TST-" + id, id, null, null, null, null, null, null, null, null, null,
+                updated, updated, null, null, null, null, null, Collections.emptyList(), Collections.emptyList(),
+                null, null, null, null, null, Collections.emptyList(), null, null, null, ImmutableSet.of());
+    }
+}
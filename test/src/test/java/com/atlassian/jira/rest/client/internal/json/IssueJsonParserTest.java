@@ -16,6 +16,7 @@
 
 package com.atlassian.jira.rest.client.internal.json;
 
+import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.domain.Attachment;
 import com.atlassian.jira.rest.client.api.domain.BasicComponent;
 import com.atlassian.jira.rest.client.api.domain.BasicPriority;
@@ -41,15 +42,19 @@ import com.atlassian.jira.rest.client.api.domain.TimeTracking;
 import com.atlassian.jira.rest.client.api.domain.Visibility;
 import com.atlassian.jira.rest.client.api.domain.Worklog;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.collection.IsEmptyIterable;
 import org.joda.time.format.ISODateTimeFormat;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -64,11 +69,17 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 
 // Ignore "May produce NPE" warnings, as we know what we are doing in tests
 @SuppressWarnings("ConstantConditions")
 public class IssueJsonParserTest {
+
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
     @Test
     public void testParseIssue() throws Exception {
         final Issue issue = parseIssue("/json/issue/valid-all-expanded.json");
@@ -164,6 +175,80 @@ public class IssueJsonParserTest {
         // TODO: add assertions for more custom field types after fixing JRJC-122
     }
 
+    @Test
+    public void testLazyParseDecodesSectionsLikeEagerParse() throws Exception {
+        final JSONObject issueJson = ResourceUtil.getJsonObjectFromResource("/json/issue/valid-all-expanded.json");
+        final Issue eager = new IssueJsonParser().parse(issueJson);
+        final Issue lazy = new IssueJsonParser(null, IssueParsingOptions.builder().lazy(true).build()).parse(issueJson);
+
+        assertEquals(eager.getKey(), lazy.getKey());
+        assertEquals(eager.getStatus(), lazy.getStatus());
+        assertEquals(eager.getAssignee(), lazy.getAssignee());
+        assertEquals(Iterables.size(eager.getComments()), Iterables.size(lazy.getComments()));
+        assertEquals(Iterables.size(eager.getAttachments()), Iterables.size(lazy.getAttachments()));
+        assertEquals(ImmutableList.copyOf(eager.getWorklogs()), ImmutableList.copyOf(lazy.getWorklogs()));
+        assertEquals(eager.getTimeTracking(), lazy.getTimeTracking());
+        assertEquals(eager.getLabels(), lazy.getLabels());
+        assertEquals(1.457, lazy.getField("customfield_10000").getValue());
+        assertSame(lazy.getComments(), lazy.getComments());
+    }
+
+    @Test
+    public void testLazyParseDefersSectionErrorsToGetter() throws Exception {
+        final JSONObject issueJson = ResourceUtil.getJsonObjectFromResource("/json/issue/valid-all-expanded.json");
+        issueJson.getJSONObject("fields").getJSONObject("comment").put("comments", new JSONArray().put("not a comment"));
+
+        final Issue issue = new IssueJsonParser(null, IssueParsingOptions.builder().lazy(true).build()).parse(issueJson);
+        assertEquals("TST-2", issue.getKey());
+        assertEquals(5, Iterables.size(issue.getWorklogs()));
+
+        exception.expect(RestClientException.class);
+        exception.expectMessage("Expected [JSONObject], but found [String]");
+        issue.getComments();
+    }
+
+    @Test
+    public void testParseProjectedIssueSkipsFieldsNotRequested() throws Exception {
+        final JSONObject issueJson = ResourceUtil.getJsonObjectFromResource("/json/issue/valid-all-expanded.json");
+        final JSONObject fields = issueJson.getJSONObject("fields");
+        for (String required : ImmutableList.of("issuetype", "created", "project", "status")) {
+            fields.remove(required);
+        }
+
+        final FieldProjection projection = FieldProjection.of(ImmutableSet.of("summary", "updated", "customfield_10000"));
+        final Issue issue = new IssueJsonParser(null, IssueParsingOptions.builder().projection(projection).build()).parse(issueJson);
+
+        assertEquals("TST-2", issue.getKey());
+        assertEquals("Testing attachem2", issue.getSummary());
+        assertEquals(toDateTime("2012-12-07T14:52:52.570+01:00"), issue.getUpdateDate());
+        assertNull(issue.getIssueType());
+        assertNull(issue.getStatus());
+        assertNull(issue.getProject());
+        assertNull(issue.getCreationDate());
+        // present in the response, but not requested
+        assertNull(issue.getAssignee());
+        assertNull(issue.getAttachments());
+        assertThat(issue.getComments(), IsEmptyIterable.<Comment>emptyIterable());
+        assertThat(issue.getWorklogs(), IsEmptyIterable.<Worklog>emptyIterable());
+        assertEquals(1.457, issue.getField("customfield_10000").getValue());
+    }
+
+    @Test
+    public void testFieldProjectionOfRequestedFields() {
+        assertTrue(FieldProjection.of(null).isAll());
+        assertTrue(FieldProjection.of(ImmutableSet.of("*all")).isAll());
+
+        final FieldProjection navigableWithoutComments = FieldProjection.of(ImmutableSet.of("*navigable", "-comment"));
+        assertFalse(navigableWithoutComments.isAll());
+        assertTrue(navigableWithoutComments.includes("summary"));
+        assertFalse(navigableWithoutComments.includes("comment"));
+
+        final FieldProjection listed = FieldProjection.of(ImmutableSet.of("summary", "status"));
+        assertFalse(listed.isAll());
+        assertTrue(listed.includes("status"));
+        assertFalse(listed.includes("issuetype"));
+    }
+
     private Issue parseIssue(final String resourcePath) throws JSONException {
         final JSONObject issueJson = ResourceUtil.getJsonObjectFromResource(resourcePath);
         final IssueJsonParser parser = new IssueJsonParser();
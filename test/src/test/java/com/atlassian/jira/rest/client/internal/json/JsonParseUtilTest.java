@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.google.common.collect.ImmutableList;
+import org.joda.time.DateTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonParseUtilTest {
+
+    @Rule
+    public final ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testParseDateTimeMatchesFormatter() {
+        for (String str : ImmutableList.of("2010-07-26T13:29:18.262+0200", "2012-12-07T14:52:52.570+01:00",
+                "2012-02-29T23:59:59.999-0530", "1969-12-31T23:59:59.001Z", "2018-03-25T02:30:00.000+0000")) {
+            assertTrue(str, JiraDateTimeParser.parseDateTimeMillis(str) != JiraDateTimeParser.UNPARSEABLE);
+            assertEquals(str, JsonParseUtil.JIRA_DATE_TIME_FORMATTER.parseDateTime(str), JsonParseUtil.parseDateTime(str));
+        }
+    }
+
+    @Test
+    public void testParseDateTimeFallsBackToFormatterForOtherLayouts() {
+        final String str = "2010-07-26T13:29:18.26+0200";
+        assertEquals(JiraDateTimeParser.UNPARSEABLE, JiraDateTimeParser.parseDateTimeMillis(str));
+        assertEquals(JsonParseUtil.JIRA_DATE_TIME_FORMATTER.parseDateTime(str), JsonParseUtil.parseDateTime(str));
+    }
+
+    @Test
+    public void testParseInvalidDateTime() {
+        assertEquals(JiraDateTimeParser.UNPARSEABLE, JiraDateTimeParser.parseDateTimeMillis("2010-02-30T13:29:18.262+0200"));
+
+        exception.expect(RestClientException.class);
+        JsonParseUtil.parseDateTime("2010-02-30T13:29:18.262+0200");
+    }
+
+    @Test
+    public void testParseDateTimeOrDate() {
+        assertEquals(JsonParseUtil.JIRA_DATE_FORMATTER.parseDateTime("2010-08-17"), JsonParseUtil.parseDateTimeOrDate("2010-08-17"));
+        assertEquals(new DateTime(2010, 8, 17, 0, 0), JsonParseUtil.parseDateTimeOrDate("2010-08-17"));
+        assertEquals(JsonParseUtil.JIRA_DATE_TIME_FORMATTER.parseDateTime("2010-08-17T16:35:47.466+0200"),
+                JsonParseUtil.parseDateTimeOrDate("2010-08-17T16:35:47.466+0200"));
+        assertTrue(JiraDateTimeParser.isDate("2010-08-17"));
+        assertFalse(JiraDateTimeParser.isDate("2010-08-1x"));
+    }
+
+    @Test
+    public void testParseDateTimeOrDateAcceptsUnpaddedDate() {
+        assertFalse(JiraDateTimeParser.isDate("2010-7-26"));
+        assertEquals(new DateTime(2010, 7, 26, 0, 0), JsonParseUtil.parseDateTimeOrDate("2010-7-26"));
+    }
+
+    @Test
+    public void testParseDateTimeOrDateFailsForGarbage() {
+        exception.expect(RestClientException.class);
+        JsonParseUtil.parseDateTimeOrDate("yesterday");
+    }
+}
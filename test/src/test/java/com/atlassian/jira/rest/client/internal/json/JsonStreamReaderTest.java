@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.internal.json;
+
+import com.atlassian.jira.rest.client.api.domain.SearchResult;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.atlassian.jira.rest.client.test.matchers.IssueMatchers.issuesWithKeys;
+import static com.atlassian.jira.rest.client.test.matchers.SearchResultMatchers.searchResultWithParamsAndIssueCount;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class JsonStreamReaderTest {
+
+    @Test
+    public void testReadObjectMapsValuesLikeJettison() throws Exception {
+        final JSONObject json = JsonStreamReader.readObject(toStream(
+                "{\"int\":1,\"long\":12345678901,\"double\":1.5,\"null\":null,\"bool\":true,\"str\":\"x\",\"arr\":[1,{\"a\":\"b\"}]}"));
+
+        assertEquals(Integer.valueOf(1), json.get("int"));
+        assertEquals(Long.valueOf(12345678901L), json.get("long"));
+        assertEquals(Double.valueOf(1.5), json.get("double"));
+        assertEquals(JSONObject.NULL, json.get("null"));
+        assertEquals(Boolean.TRUE, json.get("bool"));
+        assertEquals("x", json.get("str"));
+        final JSONArray array = json.getJSONArray("arr");
+        assertEquals(2, array.length());
+        assertEquals("b", array.getJSONObject(1).getString("a"));
+    }
+
+    @Test
+    public void testReadArray() throws Exception {
+        final JSONArray json = JsonStreamReader.readArray(toStream("[\"a\", [], {}]"));
+
+        assertEquals(3, json.length());
+        assertEquals("a", json.getString(0));
+        assertEquals(0, json.getJSONArray(1).length());
+        assertEquals(0, json.getJSONObject(2).length());
+    }
+
+    @Test(expected = JSONException.class)
+    public void testReadObjectRejectsArray() throws Exception {
+        JsonStreamReader.readObject(toStream("[]"));
+    }
+
+    @Test
+    public void testSearchResultParsedFromStream() throws Exception {
+        final String body = ResourceUtil.getStringFromResource("/json/search/many-issues.json");
+        final SearchResult searchResult = new SearchResultJsonParser().parse(JsonStreamReader.readObject(toStream(body)));
+
+        assertThat(searchResult, searchResultWithParamsAndIssueCount(0, 8, 15, 8));
+        assertThat(searchResult.getIssues(), issuesWithKeys("TST-13", "TST-12", "TST-11", "TST-10", "TST-9", "TST-8", "TST-7", "TST-6"));
+    }
+
+    private static InputStream toStream(final String json) throws IOException {
+        return new ByteArrayInputStream(json.getBytes(UTF_8));
+    }
+}
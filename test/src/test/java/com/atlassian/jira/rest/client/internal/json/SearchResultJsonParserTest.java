@@ -16,20 +16,31 @@
 
 package com.atlassian.jira.rest.client.internal.json;
 
+import com.atlassian.jira.rest.client.TestUtil;
+import com.atlassian.jira.rest.client.api.domain.BasicIssue;
 import com.atlassian.jira.rest.client.api.domain.BasicPriority;
 import com.atlassian.jira.rest.client.api.domain.BasicProject;
 import com.atlassian.jira.rest.client.api.domain.BasicVotes;
 import com.atlassian.jira.rest.client.api.domain.BasicWatchers;
 import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.api.domain.IssueField;
 import com.atlassian.jira.rest.client.api.domain.IssueType;
 import com.atlassian.jira.rest.client.api.domain.SearchResult;
 import com.atlassian.jira.rest.client.api.domain.Status;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 import static com.atlassian.jira.rest.client.TestUtil.assertEmptyIterable;
 import static com.atlassian.jira.rest.client.TestUtil.toDateTime;
 import static com.atlassian.jira.rest.client.TestUtil.toUri;
@@ -38,7 +49,9 @@ import static com.atlassian.jira.rest.client.internal.json.ResourceUtil.getJsonO
 import static com.atlassian.jira.rest.client.test.matchers.IssueMatchers.issuesWithKeys;
 import static com.atlassian.jira.rest.client.test.matchers.SearchResultMatchers.searchResultWithParamsAndIssueCount;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 public class SearchResultJsonParserTest {
@@ -71,6 +84,104 @@ public class SearchResultJsonParserTest {
         assertThat(searchResult.getIssues(), issuesWithKeys(expectedIssuesKeys));
     }
 
+    @Test
+    public void testParseManyInParallelChunksKeepsOrder() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final JSONObject json = getJsonObjectFromResource("/json/search/many-issues.json");
+            final IssueJsonParser issueParser = new IssueJsonParser(json.getJSONObject("names"), json.getJSONObject("schema"));
+            final Iterable<Issue> issues = GenericJsonArrayParser.parallel(issueParser, pool, 1)
+                    .parse(json.getJSONArray("issues"));
+
+            final List<String> expectedKeys = ImmutableList.of("TST-13", "TST-12", "TST-11", "TST-10", "TST-9", "TST-8", "TST-7", "TST-6");
+            assertEquals(expectedKeys, ImmutableList.copyOf(Iterables.transform(issues, BasicIssue::getKey)));
+            assertIssueIsTST7(findEntityById(issues, 10040L));
+
+            final SearchResult searchResult = new SearchResultJsonParser(IssueParsingOptions.builder().decodingPool(pool).build()).parse(json);
+            assertEquals(expectedKeys, ImmutableList.copyOf(Iterables.transform(searchResult.getIssues(), BasicIssue::getKey)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseInParallelChunksPropagatesJsonException() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final JSONArray json = getJsonObjectFromResource("/json/search/many-issues.json").getJSONArray("issues");
+            json.put(new JSONObject());
+
+            exception.expect(JSONException.class);
+            GenericJsonArrayParser.parallel(new IssueJsonParser(), pool, 2).parse(json);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseManySharesReferenceEntitiesWithinResponse() throws Exception {
+        final SearchResult searchResult = parser.parse(getJsonObjectFromResource("/json/search/many-issues.json"));
+
+        final Issue tst13 = findEntityById(searchResult.getIssues(), 10075L);
+        final Issue tst12 = findEntityById(searchResult.getIssues(), 10074L);
+        assertSame(tst13.getStatus(), tst12.getStatus());
+        assertSame(tst13.getProject(), tst12.getProject());
+        assertSame(tst13.getReporter(), tst12.getReporter());
+        assertNotSame(tst13.getStatus(), findEntityById(searchResult.getIssues(), 10070L).getStatus());
+    }
+
+    @Test
+    public void testSharedInternerSpansResponses() throws Exception {
+        final EntityInterner interner = EntityInterner.shared(100, 1, TimeUnit.MINUTES);
+        final SearchResultJsonParser sharingParser = new SearchResultJsonParser(IssueParsingOptions.builder().interner(interner).build());
+
+        final Issue first = Iterables.getOnlyElement(sharingParser.parse(getJsonObjectFromResource("/json/search/issues1.json")).getIssues());
+        final Issue second = Iterables.getOnlyElement(sharingParser.parse(getJsonObjectFromResource("/json/search/issues1.json")).getIssues());
+        assertNotSame(first, second);
+        assertSame(first.getStatus(), second.getStatus());
+        assertSame(first.getIssueType(), second.getIssueType());
+    }
+
+    @Test
+    public void testParsersOfSameProjectionAreEqual() {
+        final IssueParsingOptions options = IssueParsingOptions.DEFAULT;
+        final SearchResultJsonParser projected = new SearchResultJsonParser(
+                options.withProjection(FieldProjection.of(ImmutableSet.of("summary", "status"))));
+
+        TestUtil.assertEqualsSymmetrical(projected, new SearchResultJsonParser(
+                options.withProjection(FieldProjection.of(ImmutableSet.of("status", "summary")))));
+        assertEquals(projected.hashCode(), new SearchResultJsonParser(
+                options.withProjection(FieldProjection.of(ImmutableSet.of("status", "summary")))).hashCode());
+        TestUtil.assertNotEquals(projected, new SearchResultJsonParser(
+                options.withProjection(FieldProjection.of(ImmutableSet.of("summary")))));
+        TestUtil.assertNotEquals(projected, new SearchResultJsonParser(IssueParsingOptions.builder()
+                .interner(EntityInterner.shared(100, 1, TimeUnit.MINUTES))
+                .projection(FieldProjection.of(ImmutableSet.of("summary", "status")))
+                .build()));
+    }
+
+    @Test
+    public void testParseUsesPageLevelFieldMetadata() throws Exception {
+        final SearchResult searchResult = parser.parse(getJsonObjectFromResource("/json/search/issues1.json"));
+
+        final IssueField field = Iterables.getOnlyElement(searchResult.getIssues()).getField("customfield_10001");
+        assertEquals("My Radio buttons", field.getName());
+        assertEquals("string", field.getType());
+    }
+
+    @Test
+    public void testParsedIssuesLookUpFieldsThroughSharedIndex() throws Exception {
+        final SearchResult searchResult = parser.parse(getJsonObjectFromResource("/json/search/issues1.json"));
+
+        final Issue issue = Iterables.getOnlyElement(searchResult.getIssues());
+        assertEquals("customfield_10001", issue.getFieldByName("My Radio buttons").getId());
+        assertNull(issue.getField("customfield_99999"));
+        assertNull(issue.getFieldByName("No such field"));
+        for (IssueField field : issue.getFields()) {
+            assertSame(field, issue.getField(field.getId()));
+        }
+    }
+
     @Test
     public void testParseInvalidTotal() throws Exception {
         exception.expect(JSONException.class);
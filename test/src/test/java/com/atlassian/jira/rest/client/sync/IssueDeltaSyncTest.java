@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 Atlassian
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.atlassian.jira.rest.client.sync;
+
+import com.atlassian.jira.rest.client.api.domain.Issue;
+import com.atlassian.jira.rest.client.internal.async.StubSearchRestClient;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static com.atlassian.jira.rest.client.test.matchers.IssueMatchers.issuesWithKeys;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class IssueDeltaSyncTest {
+
+    private static final String JQL = "project = TST ORDER BY key";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDeltaJql() {
+        final IssueDeltaSync sync = new IssueDeltaSync(new StubSearchRestClient(0, 100),
+                new FileWatermarkStore(new File(temporaryFolder.getRoot(), "watermarks.properties")),
+                Duration.standardMinutes(5), DateTimeZone.forOffsetHours(2), 50);
+
+        assertEquals(JQL, sync.deltaJql(JQL, null));
+        final WatermarkStore.Watermark watermark = new WatermarkStore.Watermark(
+                new DateTime(2018, 3, 1, 10, 30, 15, DateTimeZone.UTC), ImmutableMap.<Long, Long>of());
+        assertEquals("(project = TST) AND updated >= \"2018/03/01 12:25\"", sync.deltaJql(JQL, watermark));
+    }
+
+    @Test
+    public void testDeltaJqlKeepsQuotedOrderBy() throws Exception {
+        final String jql = "summary ~ \"order by date\" ORDER BY key";
+        final StubSearchRestClient client = new StubSearchRestClient(1, 100);
+        final IssueDeltaSync sync = new IssueDeltaSync(client,
+                new FileWatermarkStore(temporaryFolder.newFile("watermarks.properties")),
+                Duration.standardMinutes(5), DateTimeZone.forOffsetHours(2), 50);
+
+        final WatermarkStore.Watermark watermark = new WatermarkStore.Watermark(
+                new DateTime(2018, 3, 1, 10, 30, 15, DateTimeZone.UTC), ImmutableMap.<Long, Long>of());
+        assertEquals("(summary ~ \"order by date\") AND updated >= \"2018/03/01 12:25\"",
+                sync.deltaJql(jql, watermark));
+
+        assertEquals(1, sync.sync(jql, null, issue -> {
+        }));
+        sync.sync(jql, null, issue -> {
+        });
+        final List<String> requested = client.getRequestedJqls();
+        assertEquals("(summary ~ \"order by date\") ORDER BY id ASC", requested.get(0));
+        final String delta = requested.get(requested.size() - 1);
+        assertTrue(delta, delta.startsWith("((summary ~ \"order by date\") AND updated >= \""));
+        assertTrue(delta, delta.endsWith("\") ORDER BY id ASC"));
+    }
+
+    @Test
+    public void testSecondRunSkipsUnchangedIssuesFromOverlap() throws Exception {
+        final File file = temporaryFolder.newFile("watermarks.properties");
+        final StubSearchRestClient client = new StubSearchRestClient(5, 100);
+        final IssueDeltaSync sync = new IssueDeltaSync(client, new FileWatermarkStore(file),
+                Duration.standardMinutes(10), DateTimeZone.UTC, 2);
+
+        final List<Issue> firstRun = Lists.newArrayList();
+        assertEquals(5, sync.sync(JQL, null, firstRun::add));
+        assertThat(firstRun, issuesWithKeys("TST-0", "TST-1", "TST-2", "TST-3", "TST-4"));
+
+        // the stub ignores the updated condition, so everything comes back within the overlap window
+        final IssueDeltaSync restarted = new IssueDeltaSync(client, new FileWatermarkStore(file),
+                Duration.standardMinutes(10), DateTimeZone.UTC, 2);
+        final List<Issue> secondRun = Lists.newArrayList();
+        assertEquals(0, restarted.sync(JQL, null, secondRun::add));
+        assertEquals(0, secondRun.size());
+    }
+
+    @Test
+    public void testWatermarkRoundTrip() throws Exception {
+        final FileWatermarkStore store = new FileWatermarkStore(new File(temporaryFolder.getRoot(), "nested/watermarks.properties"));
+        assertNull(store.load(JQL));
+
+        final WatermarkStore.Watermark watermark = new WatermarkStore.Watermark(new DateTime(2018, 3, 1, 10, 30),
+                ImmutableMap.of(10040L, 1519900200000L, 10041L, 1519900260000L));
+        store.store(JQL, watermark);
+        store.store("other", new WatermarkStore.Watermark(new DateTime(2017, 1, 1, 0, 0), ImmutableMap.<Long, Long>of()));
+
+        assertEquals(watermark, store.load(JQL));
+        assertEquals(0, store.load("other").getRecentlyDelivered().size());
+    }
+}
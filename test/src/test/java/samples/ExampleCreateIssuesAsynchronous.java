@@ -21,6 +21,7 @@ import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.domain.BasicIssue;
 import com.atlassian.jira.rest.client.api.domain.input.IssueInput;
 import com.atlassian.jira.rest.client.api.domain.input.IssueInputBuilder;
+import com.atlassian.jira.rest.client.internal.async.AdaptiveConcurrencyLimiter;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
 import com.atlassian.util.concurrent.Promise;
 import com.google.common.base.Function;
@@ -43,7 +44,11 @@ public class ExampleCreateIssuesAsynchronous {
     private static URI jiraServerUri = URI.create("http://localhost:2990/jira");
 
     public static void main(String[] args) throws IOException {
-        final AsynchronousJiraRestClientFactory factory = new AsynchronousJiraRestClientFactory();
+        // requests over the adaptive limit wait in a queue instead of piling up on the server
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+        final AsynchronousJiraRestClientFactory factory = AsynchronousJiraRestClientFactory.builder()
+                .concurrencyLimiter(limiter)
+                .build();
         final JiraRestClient restClient = factory.createWithBasicHttpAuthentication(jiraServerUri, "admin", "admin");
 
         try {
@@ -67,6 +72,7 @@ public class ExampleCreateIssuesAsynchronous {
             });
 
             System.out.println("Created issues:\n" + Joiner.on("\n").join(createdIssues));
+            System.out.println("Final concurrency limit: " + limiter.getLimit());
         } finally {
             restClient.close();
         }